@@ -0,0 +1,87 @@
+package com.example.smarthospitalsystem.benchmarks;
+
+import com.example.smarthospitalsystem.model.Appointment;
+import com.example.smarthospitalsystem.model.Department;
+import com.example.smarthospitalsystem.model.Doctor;
+import com.example.smarthospitalsystem.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of the nested Appointment -> User / Doctor -> User, Department graph,
+// i.e. what /api/my-appointments and /api/doctor/appointments write for 'count' appointments.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentJsonBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int count;
+
+    // Same library and defaults Spring MVC uses for the HTTP responses
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private List<Appointment> appointments;
+
+    @Setup
+    public void createGraph() {
+        Department cardiology = new Department();
+        cardiology.setId(1L);
+        cardiology.setName("Cardiology");
+        cardiology.setDescription("Heart and blood vessel care");
+
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Doctor doctor = new Doctor();
+            doctor.setId((long) i);
+            doctor.setUser(user(1000L + i, "doctor" + i, "Dr. Benchmark " + i, User.Role.DOCTOR));
+            doctor.setDepartment(cardiology);
+            doctor.setSpecialization("Interventional Cardiology");
+            doctors.add(doctor);
+        }
+        User patient = user(1L, "patient1", "Benchmark Patient", User.Role.PATIENT);
+
+        appointments = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        for (int i = 0; i < count; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setId((long) i);
+            appointment.setPatient(patient);
+            appointment.setDoctor(doctors.get(i % doctors.size()));
+            appointment.setAppointmentTime(start.plusMinutes(30L * i));
+            appointment.setStatus(Appointment.Status.values()[i % Appointment.Status.values().length]);
+            appointments.add(appointment);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return mapper.writeValueAsBytes(appointments);
+    }
+
+    private static User user(Long id, String username, String fullName, User.Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setFullName(fullName);
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuN0pQ1rS2tU3vW4xY5zA6bC7dE8fG9hI");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.smarthospitalsystem.benchmarks;
+
+import com.example.smarthospitalsystem.config.SessionTokenFilter;
+import com.example.smarthospitalsystem.model.User;
+import com.example.smarthospitalsystem.service.HospitalUserDetails;
+import com.example.smarthospitalsystem.service.SessionTokenService;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-request authentication cost of the two session modes, excluding the servlet container:
+//  - 'sessionContext' / 'sessionFilter': what the default mode does, reading the SecurityContext from the HTTP session,
+//    alone and through Spring's SecurityContextHolderFilter. The session lookup itself is a map hit on a single node;
+//    with a shared session store it becomes a network round trip.
+//  - 'tokenVerify' / 'tokenFilter': stateless mode, HMAC check of the access token alone and through SessionTokenFilter
+//  - 'tokenIssue': signing a new access token (login and /api/auth/refresh only)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthBenchmark {
+
+    private final HospitalUserDetails user = new HospitalUserDetails(42L, "dr.house", "", User.Role.DOCTOR, 7L);
+
+    private HttpSessionSecurityContextRepository sessionRepository;
+    private MockHttpServletRequest sessionRequest;
+    private MockHttpSession session;
+    private SecurityContextHolderFilter sessionFilter;
+    private SessionTokenService tokenService;
+    private SessionTokenFilter tokenFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        sessionRepository = new HttpSessionSecurityContextRepository();
+        sessionFilter = new SecurityContextHolderFilter(sessionRepository);
+        session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities())));
+        sessionRequest = new MockHttpServletRequest("GET", "/api/my-appointments");
+        sessionRequest.setSession(session);
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        tokenService = new SessionTokenService(true, List.of("k1:" + Base64.getEncoder().encodeToString(key)),
+                Duration.ofMinutes(15), Duration.ofHours(12), true, "Lax");
+        tokenFilter = new SessionTokenFilter(tokenService);
+        token = tokenService.issueAccess(user);
+        if (tokenService.verifyAccess(token) == null) {
+            throw new IllegalStateException("Token does not verify");
+        }
+    }
+
+    @Benchmark
+    public Authentication sessionContext() {
+        SecurityContext context = sessionRepository.loadDeferredContext(sessionRequest).get();
+        return context.getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication sessionFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/my-appointments");
+        request.setSession(session);
+        AuthenticationCapture chain = new AuthenticationCapture();
+        sessionFilter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain.authentication;
+    }
+
+    @Benchmark
+    public HospitalUserDetails tokenVerify() {
+        return tokenService.verifyAccess(token);
+    }
+
+    @Benchmark
+    public Authentication tokenFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/my-appointments");
+        request.setCookies(new Cookie(SessionTokenService.ACCESS_COOKIE, token));
+        AuthenticationCapture chain = new AuthenticationCapture();
+        try {
+            tokenFilter.doFilter(request, new MockHttpServletResponse(), chain);
+            return chain.authentication;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public String tokenIssue() {
+        return tokenService.issueAccess(user);
+    }
+
+    // End of the filter chain: reads the authentication the way a controller would
+    private static final class AuthenticationCapture extends MockFilterChain {
+        private Authentication authentication;
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) {
+            authentication = SecurityContextHolder.getContext().getAuthentication();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.smarthospitalsystem.benchmarks;
+
+import com.example.smarthospitalsystem.exception.SlotUnavailableException;
+import com.example.smarthospitalsystem.model.Appointment;
+import com.example.smarthospitalsystem.service.AppointmentService;
+import com.example.smarthospitalsystem.service.DoctorSlotIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// AppointmentService.bookAppointment end to end (slot index + JPA + H2).
+// Every call books a fresh slot, spread round-robin over the doctors, so runs with -t N measure contention too.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookingBenchmark {
+
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private EmbeddedHospital hospital;
+    private AppointmentService appointmentService;
+    private EmbeddedHospital.Seed seed;
+    private int slotMinutes;
+    private final AtomicLong bookings = new AtomicLong();
+    private LocalDateTime takenSlot;
+
+    @Setup(Level.Trial)
+    public void start() {
+        hospital = EmbeddedHospital.start("booking");
+        appointmentService = hospital.bean(AppointmentService.class);
+        seed = hospital.seed(10, 10, 1000);
+        slotMinutes = hospital.bean(DoctorSlotIndex.class).getSlotMinutes();
+
+        takenSlot = FIRST_SLOT.minusDays(1);
+        appointmentService.bookAppointment(seed.patientIds()[0], seed.doctorIds()[0], takenSlot);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        hospital.close();
+    }
+
+    @Benchmark
+    public Appointment bookFreeSlot() {
+        long n = bookings.getAndIncrement();
+        long[] doctors = seed.doctorIds();
+        long[] patients = seed.patientIds();
+        LocalDateTime time = FIRST_SLOT.plusMinutes((n / doctors.length) * slotMinutes);
+        return appointmentService.bookAppointment(patients[(int) (n % patients.length)], doctors[(int) (n % doctors.length)], time);
+    }
+
+    // Double booking: should be turned away by the in-memory slot index without touching the database
+    @Benchmark
+    public Object bookTakenSlot() {
+        try {
+            return appointmentService.bookAppointment(seed.patientIds()[1], seed.doctorIds()[0], takenSlot);
+        } catch (SlotUnavailableException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.smarthospitalsystem.benchmarks;
+
+import com.example.smarthospitalsystem.service.DrugNameIndex;
+import com.example.smarthospitalsystem.service.DrugNameIndexBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// DrugNameIndex prefix lookups (top 10) over an index of synthetic names about the size of the OpenFDA label export.
+// A one-letter prefix is the worst case: the top-k scan walks every name starting with it (about 3,500 for "a").
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DrugNameIndexBenchmark {
+
+    @Param({"40000"})
+    public int names;
+
+    @Param({"a", "amo", "amoxi", "zzzz"})
+    public String prefix;
+
+    private Path file;
+    private DrugNameIndex index;
+
+    @Setup
+    public void buildIndex() throws IOException {
+        Random random = new Random(42);
+        DrugNameIndexBuilder builder = new DrugNameIndexBuilder();
+        for (int i = 0; i < names; i++) {
+            String name = randomName(random, i < names / 20 ? "amo" : "");
+            // A few names appear on many labels, most on one or two
+            int labels = 1 + (int) Math.floor(Math.pow(random.nextDouble(), 8) * 500);
+            for (int l = 0; l < labels; l++) {
+                builder.addName(name);
+            }
+        }
+        file = Files.createTempFile("drug-names", ".idx");
+        builder.write(file);
+        index = new DrugNameIndex(file.toString());
+        index.load();
+        if (index.size() < names * 9 / 10) {
+            throw new IllegalStateException("Benchmark index has only " + index.size() + " names");
+        }
+    }
+
+    @TearDown
+    public void deleteIndex() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<String> search() {
+        return index.search(prefix, 10);
+    }
+
+    private static String randomName(Random random, String start) {
+        StringBuilder name = new StringBuilder(start);
+        int length = start.length() + 4 + random.nextInt(8);
+        while (name.length() < length) {
+            name.append((char) ('a' + random.nextInt(26)));
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.smarthospitalsystem.benchmarks;
+
+import com.example.smarthospitalsystem.SmartHospitalSystemApplication;
+import com.example.smarthospitalsystem.model.Department;
+import com.example.smarthospitalsystem.model.Doctor;
+import com.example.smarthospitalsystem.model.User;
+import com.example.smarthospitalsystem.repository.DepartmentRepository;
+import com.example.smarthospitalsystem.repository.DoctorRepository;
+import com.example.smarthospitalsystem.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The real application context on an in-memory H2 database, for benchmarks that go through services and JPA
+public final class EmbeddedHospital implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedHospital(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static EmbeddedHospital start(String databaseName) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SmartHospitalSystemApplication.class)
+                .logStartupInfo(false)
+                .run("--spring.profiles.active=benchmark",
+                        "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--server.port=0",
+                        "--server.ssl.enabled=false",
+                        "--logging.level.root=WARN");
+        return new EmbeddedHospital(context);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // 'departments' departments with 'doctorsPerDepartment' doctors each, plus 'patients' patients
+    public Seed seed(int departments, int doctorsPerDepartment, int patients) {
+        UserRepository users = bean(UserRepository.class);
+        DoctorRepository doctors = bean(DoctorRepository.class);
+        DepartmentRepository departmentRepository = bean(DepartmentRepository.class);
+
+        long[] doctorIds = new long[departments * doctorsPerDepartment];
+        int d = 0;
+        for (int i = 0; i < departments; i++) {
+            Department department = new Department();
+            department.setName("Department " + i);
+            department.setDescription("Benchmark department " + i);
+            department = departmentRepository.save(department);
+            for (int j = 0; j < doctorsPerDepartment; j++) {
+                Doctor doctor = new Doctor();
+                doctor.setUser(users.save(user("doctor" + d, User.Role.DOCTOR)));
+                doctor.setDepartment(department);
+                doctor.setSpecialization("Specialization " + i);
+                doctorIds[d++] = doctors.save(doctor).getId();
+            }
+        }
+
+        long[] patientIds = new long[patients];
+        for (int i = 0; i < patients; i++) {
+            patientIds[i] = users.save(user("patient" + i, User.Role.PATIENT)).getId();
+        }
+        return new Seed(doctorIds, patientIds);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private static User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setFullName("Benchmark " + role.name().toLowerCase());
+        user.setPassword("not-a-real-hash"); // nobody logs in during benchmarks
+        user.setRole(role);
+        return user;
+    }
+
+    public record Seed(long[] doctorIds, long[] patientIds) {
+    }
+}
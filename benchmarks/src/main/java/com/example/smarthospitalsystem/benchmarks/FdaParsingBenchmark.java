@@ -0,0 +1,63 @@
+package com.example.smarthospitalsystem.benchmarks;
+
+import com.example.smarthospitalsystem.service.DrugApiService;
+import com.example.smarthospitalsystem.service.DrugLookup;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// DrugApiService's parsing of an OpenFDA label response (no network). Run with -prof gc to see allocation per call:
+// 'treeBaseline' is the previous implementation (new ObjectMapper + readTree per call), 'parseLabel' the streaming one.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FdaParsingBenchmark {
+
+    @Param({"small", "typical", "large"})
+    public String size;
+
+    private String payload;
+
+    @Setup
+    public void createPayload() {
+        payload = OpenFdaPayloads.label(size);
+        if (DrugApiService.parseLabel(payload).outcome() != DrugLookup.Outcome.FOUND) {
+            throw new IllegalStateException("Benchmark payload does not parse");
+        }
+    }
+
+    @Benchmark
+    public DrugLookup parseLabel() {
+        return DrugApiService.parseLabel(payload);
+    }
+
+    @Benchmark
+    public DrugLookup treeBaseline() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode root = mapper.readTree(payload);
+        if (root.has("results") && !root.get("results").isEmpty()) {
+            JsonNode result = root.get("results").get(0);
+            if (result.has("indications_and_usage")) {
+                String info = result.get("indications_and_usage").get(0).asText();
+                return DrugLookup.found(info.length() > 200 ? info.substring(0, 200) + "..." : info);
+            }
+            return DrugLookup.found("Drug found, but no description available.");
+        }
+        return DrugLookup.notFound();
+    }
+}
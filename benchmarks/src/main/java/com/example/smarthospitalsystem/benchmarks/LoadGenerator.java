@@ -0,0 +1,271 @@
+package com.example.smarthospitalsystem.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Scripted workload against a running app (normally the 'loadtest' profile, which seeds the accounts used here).
+// Each virtual user logs in once and then loops through its flow until the run ends:
+//   patient: departments -> doctors of a department -> book -> own appointments (-> drug search every 4th round)
+//   doctor : pending appointments -> approve one -> prescribe for it
+// At the end it prints throughput, p50 / p99 latency and errors per endpoint (and writes them as JSON with --out).
+//
+// mvn -f benchmarks/pom.xml compile exec:java@loadtest -Dloadtest.args="--users 200 --duration 120s"
+public class LoadGenerator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String baseUrl;
+    private final int patients;
+    private final int doctors;
+    private final String password;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private LoadGenerator(String baseUrl, int patients, int doctors, String password) {
+        this.baseUrl = baseUrl;
+        this.patients = patients;
+        this.doctors = doctors;
+        this.password = password;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "--base-url", "http://localhost:8080",
+                "--users", "100",
+                "--doctor-share", "0.2",
+                "--duration", "60s",
+                "--patients", "50000",
+                "--doctors", "2000",
+                "--password", "Load#Test1"));
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+
+        LoadGenerator generator = new LoadGenerator(options.get("--base-url"), Integer.parseInt(options.get("--patients")),
+                Integer.parseInt(options.get("--doctors")), options.get("--password"));
+        int users = Integer.parseInt(options.get("--users"));
+        int doctorUsers = (int) Math.round(users * Double.parseDouble(options.get("--doctor-share")));
+        Duration duration = Duration.parse("PT" + options.get("--duration").toUpperCase());
+
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        try (ExecutorService virtualUsers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                boolean doctor = i < doctorUsers;
+                int account = ThreadLocalRandom.current().nextInt(doctor ? generator.doctors : generator.patients);
+                virtualUsers.execute(() -> generator.runUser(doctor, account, deadline));
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        generator.report(System.out, seconds, users);
+        if (options.containsKey("--out")) {
+            Files.writeString(Path.of(options.get("--out")), generator.reportJson(seconds, users));
+        }
+    }
+
+    private void runUser(boolean doctor, int account, long deadline) {
+        // HTTP/1.1 like a browser on plain http: the default h2c upgrade stalls Tomcat on requests with a body
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String username = (doctor ? "doctor" : "patient") + account;
+        if (call(client, "POST /login", form("/login", Map.of("username", username, "password", password))) == null) {
+            return;
+        }
+        int round = 0;
+        while (System.nanoTime() < deadline) {
+            if (doctor) {
+                doctorRound(client);
+            } else {
+                patientRound(client, round++);
+            }
+        }
+    }
+
+    private void patientRound(HttpClient client, int round) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        JsonNode departments = call(client, "GET /api/departments", get("/api/departments"));
+        if (departments == null || departments.isEmpty()) {
+            return;
+        }
+        long departmentId = departments.get(random.nextInt(departments.size())).get("id").asLong();
+        JsonNode doctorList = call(client, "GET /api/doctors/{deptId}", get("/api/doctors/" + departmentId));
+        if (doctorList == null || doctorList.isEmpty()) {
+            return;
+        }
+        long doctorId = doctorList.get(random.nextInt(doctorList.size())).get("id").asLong();
+
+        // A random free-looking half-hour slot 3 to 6 months ahead (409 = taken, counted separately)
+        LocalDateTime slot = LocalDate.now().plusDays(90 + random.nextInt(90)).atTime(9, 0).plusMinutes(30L * random.nextInt(16));
+        call(client, "POST /api/appointments/book", postJson("/api/appointments/book",
+                "{\"doctorId\":" + doctorId + ",\"dateTime\":\"" + slot + "\"}"));
+        call(client, "GET /api/my-appointments/page", get("/api/my-appointments/page?size=20"));
+        if (round % 4 == 0) {
+            call(client, "GET /api/drugs/search", get("/api/drugs/search?query=" + (random.nextBoolean() ? "asp" : "al")));
+        }
+    }
+
+    private void doctorRound(HttpClient client) {
+        JsonNode page = call(client, "GET /api/doctor/appointments/page", get("/api/doctor/appointments/page?status=PENDING&size=20"));
+        if (page == null || page.path("items").isEmpty()) {
+            // Nothing to do: look at the full schedule instead, like a doctor refreshing the dashboard
+            call(client, "GET /api/doctor/appointments/page", get("/api/doctor/appointments/page?size=20"));
+            return;
+        }
+        JsonNode items = page.get("items");
+        long appointmentId = items.get(ThreadLocalRandom.current().nextInt(items.size())).get("id").asLong();
+        if (call(client, "POST /api/appointments/{id}/status", postJson("/api/appointments/" + appointmentId + "/status", "\"APPROVED\"")) == null) {
+            return;
+        }
+        call(client, "POST /api/prescriptions", postJson("/api/prescriptions",
+                "{\"appointmentId\":" + appointmentId + ",\"diagnosis\":\"Tension headache\",\"medicineName\":\"Aspirin\",\"dosage\":\"500mg as needed\"}"));
+    }
+
+    // Sends the request and records its latency under 'name'. Returns the parsed body (or an empty object), null on failure.
+    private JsonNode call(HttpClient client, String name, HttpRequest request) {
+        Endpoint endpoint = endpoints.computeIfAbsent(name, n -> new Endpoint());
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long micros = (System.nanoTime() - start) / 1000;
+            int status = response.statusCode();
+            boolean redirectAfterLogin = name.equals("POST /login") && status == 302
+                    && !response.headers().firstValue("Location").orElse("").contains("error");
+            if (status == 409) {
+                endpoint.record(micros, Outcome.CONFLICT);
+                return null;
+            }
+            if (status >= 400 || (status >= 300 && !redirectAfterLogin)) {
+                endpoint.record(micros, Outcome.ERROR);
+                return null;
+            }
+            endpoint.record(micros, Outcome.OK);
+            String body = response.body();
+            return body == null || body.isBlank() || !(body.startsWith("{") || body.startsWith("["))
+                    ? JSON.createObjectNode() : JSON.readTree(body);
+        } catch (IOException e) {
+            endpoint.record((System.nanoTime() - start) / 1000, Outcome.ERROR);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest postJson(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpRequest form(String path, Map<String, String> fields) {
+        String body = fields.entrySet().stream()
+                .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .reduce((a, b) -> a + "&" + b).orElse("");
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private void report(PrintStream out, double seconds, int users) {
+        out.printf("%n%d virtual users, %.1f s%n", users, seconds);
+        out.printf("%-40s %9s %9s %10s %10s %8s %8s%n", "endpoint", "requests", "req/s", "p50 (ms)", "p99 (ms)", "errors", "409s");
+        summaries(seconds).forEach((name, s) -> out.printf("%-40s %9d %9.1f %10.2f %10.2f %8d %8d%n",
+                name, s.requests, s.throughput, s.p50Millis, s.p99Millis, s.errors, s.conflicts));
+    }
+
+    private String reportJson(double seconds, int users) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", users);
+        report.put("seconds", seconds);
+        report.put("endpoints", summaries(seconds));
+        return JSON.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+    }
+
+    private Map<String, Summary> summaries(double seconds) {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        endpoints.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(e -> summaries.put(e.getKey(), e.getValue().summarize(seconds)));
+        return summaries;
+    }
+
+    private enum Outcome { OK, ERROR, CONFLICT }
+
+    public record Summary(long requests, double throughput, double p50Millis, double p99Millis, long errors, long conflicts) {
+    }
+
+    // Keeps every latency sample (a few MB for a typical run) so percentiles are exact
+    private static final class Endpoint {
+        private final List<long[]> chunks = new ArrayList<>();
+        private long[] current = new long[4096];
+        private int size;
+        private long errors;
+        private long conflicts;
+
+        synchronized void record(long micros, Outcome outcome) {
+            if (outcome == Outcome.ERROR) {
+                errors++;
+            } else if (outcome == Outcome.CONFLICT) {
+                conflicts++;
+            }
+            if (size == current.length) {
+                chunks.add(current);
+                current = new long[current.length];
+                size = 0;
+            }
+            current[size++] = micros;
+        }
+
+        synchronized Summary summarize(double seconds) {
+            long[] all = new long[chunks.size() * current.length + size];
+            int n = 0;
+            for (long[] chunk : chunks) {
+                System.arraycopy(chunk, 0, all, n, chunk.length);
+                n += chunk.length;
+            }
+            System.arraycopy(current, 0, all, n, size);
+            Arrays.sort(all);
+            return new Summary(all.length, all.length / seconds, percentile(all, 0.50), percentile(all, 0.99), errors, conflicts);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.smarthospitalsystem.benchmarks;
+
+import java.util.List;
+
+// Synthetic /drug/label.json responses shaped like real OpenFDA labels: a "meta" block, then one label
+// with dozens of long text sections and a large "openfda" block. Sizes follow what the API returns
+// for an OTC monograph (~4 KB), a typical Rx label (~40 KB) and a long Rx label with tables (~250 KB).
+public final class OpenFdaPayloads {
+
+    private static final String SENTENCE = "Use only as directed by a physician; patients with hepatic or renal impairment "
+            + "should be monitored closely and the dosage adjusted according to clinical response and tolerability. ";
+
+    // Label sections in the order OpenFDA usually returns them
+    private static final List<String> SECTIONS = List.of(
+            "spl_product_data_elements", "boxed_warning", "recent_major_changes", "description",
+            "clinical_pharmacology", "mechanism_of_action", "pharmacodynamics", "pharmacokinetics",
+            "indications_and_usage", "contraindications", "warnings_and_cautions", "adverse_reactions",
+            "adverse_reactions_table", "drug_interactions", "use_in_specific_populations", "pregnancy",
+            "pediatric_use", "geriatric_use", "overdosage", "dosage_and_administration",
+            "dosage_forms_and_strengths", "how_supplied", "storage_and_handling", "clinical_studies",
+            "clinical_studies_table", "references", "patient_counseling_information",
+            "spl_medguide", "package_label_principal_display_panel", "spl_unclassified_section");
+
+    private OpenFdaPayloads() {
+    }
+
+    public static String label(String size) {
+        return switch (size) {
+            case "small" -> label(6, 1);
+            case "typical" -> label(SECTIONS.size(), 6);
+            case "large" -> label(SECTIONS.size(), 40);
+            default -> throw new IllegalArgumentException("Unknown payload size " + size);
+        };
+    }
+
+    // 'sections' text sections of 'sentencesPerSection' sentences each
+    public static String label(int sections, int sentencesPerSection) {
+        StringBuilder json = new StringBuilder(sections * sentencesPerSection * SENTENCE.length() + 8192);
+        json.append("{\"meta\":{\"disclaimer\":\"Do not rely on openFDA to make decisions regarding medical care.\",")
+                .append("\"terms\":\"https://open.fda.gov/terms/\",\"license\":\"https://open.fda.gov/license/\",")
+                .append("\"last_updated\":\"2025-06-20\",\"results\":{\"skip\":0,\"limit\":1,\"total\":37}},\"results\":[{");
+        json.append("\"effective_time\":\"20240115\",\"version\":\"12\",")
+                .append("\"set_id\":\"6b1f1e0a-63a4-4b4f-9c5e-3f1c8a7d2e11\",\"id\":\"f5c0d9e2-7a3b-4c1d-8e9f-0a1b2c3d4e5f\",");
+
+        int indications = SECTIONS.indexOf("indications_and_usage");
+        for (int i = 0; i < sections; i++) {
+            // small labels still carry the field the app reads
+            String field = sections < SECTIONS.size() && i == sections - 1 ? SECTIONS.get(indications) : SECTIONS.get(i);
+            json.append('"').append(field).append("\":[\"");
+            if (field.equals("indications_and_usage")) {
+                json.append("Aspirin is indicated for the temporary relief of minor aches and pains and to reduce fever. ");
+            }
+            json.append(SENTENCE.repeat(sentencesPerSection)).append("\"],");
+        }
+
+        json.append("\"openfda\":{");
+        json.append("\"brand_name\":[\"Aspirin\"],\"generic_name\":[\"ASPIRIN\"],")
+                .append("\"manufacturer_name\":[\"Benchmark Pharma Inc.\"],\"product_type\":[\"HUMAN OTC DRUG\"],")
+                .append("\"route\":[\"ORAL\"],\"substance_name\":[\"ASPIRIN\"],\"rxcui\":[\"198466\",\"212033\"],")
+                .append("\"spl_id\":[\"f5c0d9e2-7a3b-4c1d-8e9f-0a1b2c3d4e5f\"],\"unii\":[\"R16CO5Y76E\"],");
+        json.append("\"product_ndc\":[");
+        appendNdcs(json, sentencesPerSection * 4);
+        json.append("],\"package_ndc\":[");
+        appendNdcs(json, sentencesPerSection * 12);
+        json.append("]}}]}");
+        return json.toString();
+    }
+
+    private static void appendNdcs(StringBuilder json, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(String.format("%05d-%03d-%02d", 50000 + i, i % 1000, i % 100)).append('"');
+        }
+    }
+}
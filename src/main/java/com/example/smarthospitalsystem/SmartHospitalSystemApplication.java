@@ -1,17 +1,29 @@
 package com.example.smarthospitalsystem;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
 
 @SpringBootApplication
+@EnableScheduling // daily roll-over of the doctor agenda and the slot index (DoctorAgenda, AppointmentService)
 public class SmartHospitalSystemApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(SmartHospitalSystemApplication.class, args);
     }
     @Bean
-    public org.springframework.web.client.RestTemplate restTemplate() {
-        return new org.springframework.web.client.RestTemplate();
+    public org.springframework.web.client.RestTemplate restTemplate(
+            @Value("${app.fda.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${app.fda.read-timeout:3s}") Duration readTimeout) {
+        // No call to OpenFDA may hang forever
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        return new org.springframework.web.client.RestTemplate(requestFactory);
     }
 }
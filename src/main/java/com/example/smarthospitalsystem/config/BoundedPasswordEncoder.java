@@ -0,0 +1,149 @@
+package com.example.smarthospitalsystem.config;
+
+import com.example.smarthospitalsystem.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// BCrypt on its own CPU-sized pool instead of the request threads.
+// - At most 'threads' hashes run at once; 'queue-capacity' more may wait, beyond that callers get
+//   PasswordHashingOverloadedException (503 / failed login) instead of piling up.
+// - upgradeEncoding() reports hashes made with a lower cost, so logins rehash them (see CustomUserDetailsService).
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+    private final int threads;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, Duration timeout, MeterRegistry meterRegistry) {
+        this.bcrypt = new BCryptPasswordEncoder(strength);
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.timeoutNanos = timeout.toNanos();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "password-hasher-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.encodeTimer = Timer.builder("auth.hashing").tag("operation", "encode")
+                .description("Time spent computing BCrypt hashes").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.hashing").tag("operation", "matches")
+                .description("Time spent computing BCrypt hashes").register(meterRegistry);
+        this.rejected = Counter.builder("auth.hashing.rejected")
+                .description("Hashing requests refused because the queue was full").register(meterRegistry);
+        Gauge.builder("auth.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Hashing requests waiting for a thread").register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing requests running").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> encodeTimer.record(() -> bcrypt.encode(rawPassword))));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> matchesTimer.record(() -> bcrypt.matches(rawPassword, encodedPassword))));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bcrypt.upgradeEncoding(encodedPassword);
+    }
+
+    // Bulk hashing (imports): keeps at most 'threads' of its own tasks queued, so logins and
+    // registrations arriving meanwhile wait behind one round of hashes, not the whole batch.
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        Semaphore inFlight = new Semaphore(threads);
+        List<Future<String>> hashes = new ArrayList<>(rawPasswords.size());
+        try {
+            for (CharSequence raw : rawPasswords) {
+                inFlight.acquire();
+                while (true) {
+                    try {
+                        hashes.add(executor.submit(() -> {
+                            try {
+                                return encodeTimer.record(() -> bcrypt.encode(raw));
+                            } finally {
+                                inFlight.release();
+                            }
+                        }));
+                        break;
+                    } catch (RejectedExecutionException e) {
+                        // interactive traffic filled the queue; back off instead of failing the import
+                        Thread.sleep(10);
+                    }
+                }
+            }
+            List<String> encoded = new ArrayList<>(hashes.size());
+            for (Future<String> hash : hashes) {
+                encoded.add(hash.get());
+            }
+            return encoded;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            hashes.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingOverloadedException("Too many password operations in progress, please retry shortly");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingOverloadedException("Password hashing timed out, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PasswordHashingOverloadedException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.example.smarthospitalsystem.config;
 
 import com.example.smarthospitalsystem.model.User;
-import com.example.smarthospitalsystem.repository.UserRepository;
+import com.example.smarthospitalsystem.service.HospitalUserDetails;
+import com.example.smarthospitalsystem.service.SessionTokenService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -9,7 +10,6 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
 
@@ -18,18 +18,23 @@ import java.io.IOException;
 @Component
 public class CustomLoginSuccessHandler implements AuthenticationSuccessHandler {
 
-    @Autowired
-    private UserRepository userRepository;
-
     // Inject the URL from application.properties (https://localhost:3000 or AWS URL)
     @Value("${app.frontend.url}")
     private String frontendUrl;
 
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
     @Override
     public void onAuthenticationSuccess(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, Authentication authentication) throws IOException, ServletException {
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        // The principal was just loaded by CustomUserDetailsService, no need to query the user again
+        HospitalUserDetails user = (HospitalUserDetails) authentication.getPrincipal();
+
+        // Stateless mode: the session is replaced by token cookies. The refresh token is bound to the fingerprint
+        // of the hash this login was checked against (kept on the principal), so a password change ends it
+        if (sessionTokenService.isEnabled()) {
+            sessionTokenService.writeCookies(response, user);
+        }
 
         // Determine the redirect path based on role
         String redirectPath = "";
@@ -43,4 +48,4 @@ public class CustomLoginSuccessHandler implements AuthenticationSuccessHandler {
 
         response.sendRedirect(frontendUrl + redirectPath);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package com.example.smarthospitalsystem.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Local stand-in for api.fda.gov in the 'loadtest' profile (app.fda.base-url points here).
+// Answers /drug/label.json like OpenFDA does - label lookups, brand-name wildcard searches, 404 for no match -
+// after 'latency' (+/- 50% jitter), failing 'error-rate' of the calls with a 500.
+@Component
+@Profile("loadtest")
+public class FdaStubServer {
+
+    private static final Logger log = LoggerFactory.getLogger(FdaStubServer.class);
+    private static final String[] BRANDS = {"Aspirin", "Aspercreme", "Asmanex", "Astepro", "Advil", "Aleve",
+            "Amoxil", "Ativan", "Benadryl", "Claritin", "Lipitor", "Tylenol", "Zyrtec", "Nexium", "Motrin"};
+
+    private final int port;
+    private final Duration latency;
+    private final double errorRate;
+    private final String labelFiller;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private HttpServer server;
+
+    public FdaStubServer(@Value("${app.loadtest.fda-stub.port:8099}") int port,
+                         @Value("${app.loadtest.fda-stub.latency:150ms}") Duration latency,
+                         @Value("${app.loadtest.fda-stub.error-rate:0.0}") double errorRate,
+                         @Value("${app.loadtest.fda-stub.label-kb:40}") int labelKb) {
+        this.port = port;
+        this.latency = latency;
+        this.errorRate = errorRate;
+        // Real labels are mostly long text sections the app never reads
+        StringBuilder filler = new StringBuilder();
+        for (int i = 0; filler.length() < labelKb * 1024; i++) {
+            filler.append("\"section_").append(i).append("\":[\"")
+                    .append("Monitor patients with hepatic or renal impairment and adjust the dose to clinical response. ".repeat(10))
+                    .append("\"],");
+        }
+        this.labelFiller = filler.toString();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(executor); // sleeping handlers must not hold up each other
+        server.createContext("/drug/label.json", this::handle);
+        server.start();
+        log.info("Stub OpenFDA listening on http://127.0.0.1:{} (latency {}, error rate {})", port, latency, errorRate);
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long millis = latency.toMillis();
+            if (millis > 0) {
+                Thread.sleep(millis / 2 + random.nextLong(millis + 1));
+            }
+            if (random.nextDouble() < errorRate) {
+                send(exchange, 500, "{\"error\":{\"code\":\"SERVER_ERROR\"}}");
+                return;
+            }
+
+            String query = exchange.getRequestURI().getRawQuery();
+            String search = query == null ? "" : URLDecoder.decode(query, StandardCharsets.UTF_8).toLowerCase();
+            if (search.contains("*")) {
+                send(exchange, 200, searchResponse(search));
+            } else if (search.contains("unknown")) {
+                send(exchange, 404, "{\"error\":{\"code\":\"NOT_FOUND\",\"message\":\"No matches found!\"}}");
+            } else {
+                send(exchange, 200, labelResponse());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String searchResponse(String search) {
+        StringBuilder json = new StringBuilder("{\"meta\":{\"results\":{\"skip\":0,\"limit\":5}},\"results\":[");
+        int found = 0;
+        for (String brand : BRANDS) {
+            int star = search.indexOf('*');
+            int quote = search.lastIndexOf('"', star);
+            String prefix = quote >= 0 && star > quote ? search.substring(quote + 1, star) : "";
+            if (found < 5 && brand.toLowerCase().startsWith(prefix)) {
+                json.append(found++ > 0 ? "," : "").append("{").append(labelFiller)
+                        .append("\"openfda\":{\"brand_name\":[\"").append(brand).append("\"]}}");
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    private String labelResponse() {
+        return "{\"meta\":{\"results\":{\"skip\":0,\"limit\":1,\"total\":12}},\"results\":[{"
+                + "\"indications_and_usage\":[\"Temporarily relieves minor aches and pains due to headache, muscular aches, "
+                + "toothache and the common cold, and temporarily reduces fever.\"]," + labelFiller
+                + "\"openfda\":{\"brand_name\":[\"Aspirin\"],\"generic_name\":[\"ASPIRIN\"]}}]}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.smarthospitalsystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Fills an empty 'loadtest' database with realistic volumes (thousands of doctors, millions of appointments).
+// Runs before the app reports ready, so the booking slot index is rebuilt from the seeded data.
+// Rows go in through JDBC batches; doing this through JPA would take longer than the test itself.
+@Component
+@Profile("loadtest")
+@Order(0)
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+    private static final int BATCH_SIZE = 5000;
+    // Appointments are spread over the past year and the next three months, 16 half-hour slots a day from 09:00
+    private static final int DAYS_BACK = 365;
+    private static final int DAYS_AHEAD = 90;
+    private static final int SLOTS_PER_DAY = 16;
+    private static final String[] FIRST_NAMES = {"Amira", "Ben", "Chloe", "Daniel", "Elif", "Farah", "George", "Hana",
+            "Ivan", "Julia", "Karim", "Lena", "Marco", "Nadia", "Omar", "Priya", "Quinn", "Rami", "Sara", "Tomas"};
+    private static final String[] LAST_NAMES = {"Adams", "Bakir", "Costa", "Dubois", "Evans", "Fischer", "Garcia", "Haddad",
+            "Ito", "Jensen", "Khan", "Lopez", "Meyer", "Novak", "Okafor", "Petrov", "Rossi", "Silva", "Tanaka", "Yilmaz"};
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PasswordEncoder passwordEncoder;
+
+    @Value("${app.loadtest.departments:25}") private int departments;
+    @Value("${app.loadtest.doctors:2000}") private int doctors;
+    @Value("${app.loadtest.patients:50000}") private int patients;
+    @Value("${app.loadtest.appointments:2000000}") private long appointments;
+    @Value("${app.loadtest.prescription-ratio:0.3}") private double prescriptionRatio;
+    @Value("${app.loadtest.password:Load#Test1}") private String password;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Load-test database already has {} users, not seeding", existing);
+            return;
+        }
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(42);
+        // One hash for every account: seeding must not spend minutes in BCrypt
+        String hash = passwordEncoder.encode(password);
+
+        // 1. Departments and accounts
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < departments; i++) {
+            rows.add(new Object[]{"Department " + i, "Load-test department " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO departments (name, description) VALUES (?, ?)", rows);
+        List<Long> departmentIds = jdbcTemplate.queryForList("SELECT id FROM departments ORDER BY id", Long.class);
+
+        insertUsers("loadadmin", 1, "ADMIN", hash, false);
+        insertUsers("doctor", doctors, "DOCTOR", hash, true);
+        insertUsers("patient", patients, "PATIENT", hash, true);
+        List<Long> doctorUserIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE role = 'DOCTOR' ORDER BY id", Long.class);
+        List<Long> patientIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE role = 'PATIENT' ORDER BY id", Long.class);
+
+        rows.clear();
+        for (int i = 0; i < doctorUserIds.size(); i++) {
+            rows.add(new Object[]{"Specialization " + (i % 40), doctorUserIds.get(i), departmentIds.get(i % departmentIds.size())});
+            if (rows.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("INSERT INTO doctors (specialization, user_id, department_id, is_available) VALUES (?, ?, ?, TRUE)", rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO doctors (specialization, user_id, department_id, is_available) VALUES (?, ?, ?, TRUE)", rows);
+        List<Long> doctorIds = jdbcTemplate.queryForList("SELECT id FROM doctors ORDER BY id", Long.class);
+
+        // 2. Appointments: each doctor gets an equal share of distinct slots, random within evenly sized windows
+        LocalDateTime firstSlot = LocalDate.now().minusDays(DAYS_BACK).atTime(9, 0);
+        LocalDateTime now = LocalDateTime.now();
+        int slotsPerDoctor = (DAYS_BACK + DAYS_AHEAD) * SLOTS_PER_DAY;
+        int perDoctor = (int) Math.min(slotsPerDoctor, appointments / doctorIds.size());
+        int window = slotsPerDoctor / Math.max(perDoctor, 1);
+        rows.clear();
+        long inserted = 0;
+        for (Long doctorId : doctorIds) {
+            for (int i = 0; i < perDoctor; i++) {
+                int slot = i * window + random.nextInt(window);
+                LocalDateTime time = firstSlot.plusDays(slot / SLOTS_PER_DAY).plusMinutes(30L * (slot % SLOTS_PER_DAY));
+                rows.add(new Object[]{patientIds.get(random.nextInt(patientIds.size())), doctorId, Timestamp.valueOf(time), status(time, now, random)});
+                if (rows.size() == BATCH_SIZE) {
+                    inserted += insertAppointments(rows);
+                }
+            }
+        }
+        inserted += insertAppointments(rows);
+
+        // 3. Prescriptions for a share of the completed visits
+        int prescriptions = jdbcTemplate.update("INSERT INTO prescriptions (appointment_id, diagnosis, medicine_name, dosage, notes) " +
+                "SELECT id, 'Seasonal influenza', 'Aspirin', '500mg twice a day', 'FDA INFO: seeded' FROM appointments " +
+                "WHERE status = 'COMPLETED' AND MOD(id, 1000) < ?", (int) Math.round(prescriptionRatio * 1000));
+
+        log.info("Seeded {} departments, {} doctors, {} patients, {} appointments, {} prescriptions in {} s",
+                departmentIds.size(), doctorIds.size(), patientIds.size(), inserted, prescriptions,
+                (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private void insertUsers(String prefix, int count, String role, String hash, boolean numbered) {
+        List<Object[]> rows = new ArrayList<>(Math.min(count, BATCH_SIZE));
+        for (int i = 0; i < count; i++) {
+            String username = numbered ? prefix + i : prefix;
+            // Names must pass the User.fullName pattern (letters only), in case an account is later edited through JPA
+            String fullName = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+            rows.add(new Object[]{username, hash, fullName, role});
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO users (username, password, full_name, role) VALUES (?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private int insertAppointments(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO appointments (patient_id, doctor_id, appointment_time, status) VALUES (?, ?, ?, ?)", rows);
+        int count = rows.size();
+        rows.clear();
+        return count;
+    }
+
+    // Past visits are mostly completed, upcoming ones mostly pending
+    private static String status(LocalDateTime time, LocalDateTime now, SplittableRandom random) {
+        int roll = random.nextInt(10);
+        if (time.isBefore(now)) {
+            return roll < 8 ? "COMPLETED" : "REJECTED";
+        }
+        return roll < 6 ? "PENDING" : roll < 9 ? "APPROVED" : "REJECTED";
+    }
+}
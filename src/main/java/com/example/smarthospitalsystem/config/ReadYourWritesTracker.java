@@ -0,0 +1,74 @@
+package com.example.smarthospitalsystem.config;
+
+import com.example.smarthospitalsystem.service.AppointmentChangedEvent;
+import com.example.smarthospitalsystem.service.HospitalUserDetails;
+import com.example.smarthospitalsystem.service.PrescriptionCreatedEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Read-your-writes for replica routing: whoever wrote, or was affected by a write, reads from the primary
+// for 'window' afterwards, long enough for the replicas to have applied it.
+// Both sides of an appointment are pinned, so the patient's re-fetch after a pushed status change is not stale.
+public class ReadYourWritesTracker {
+
+    private static final int SWEEP_EVERY = 1024;
+
+    private final long windowNanos;
+    // "user:<id>" / "doctor:<id>" -> System.nanoTime() until which reads stay on the primary
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final AtomicInteger pins = new AtomicInteger();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void pinUser(Long userId) {
+        pin("user:" + userId);
+    }
+
+    public void pinDoctor(Long doctorId) {
+        pin("doctor:" + doctorId);
+    }
+
+    public void pin(HospitalUserDetails user) {
+        pinUser(user.getUserId());
+        if (user.isDoctor()) {
+            pinDoctor(user.getDoctorId());
+        }
+    }
+
+    public boolean isPinned(HospitalUserDetails user) {
+        long now = System.nanoTime();
+        return isPinned("user:" + user.getUserId(), now)
+                || (user.isDoctor() && isPinned("doctor:" + user.getDoctorId(), now));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        pinUser(event.appointment().patientId());
+        pinDoctor(event.appointment().doctorId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrescriptionCreated(PrescriptionCreatedEvent event) {
+        pinUser(event.appointment().patientId());
+        pinDoctor(event.appointment().doctorId());
+    }
+
+    private void pin(String key) {
+        pinnedUntil.put(key, System.nanoTime() + windowNanos);
+        if (pins.incrementAndGet() % SWEEP_EVERY == 0) {
+            long now = System.nanoTime();
+            pinnedUntil.values().removeIf(until -> until - now < 0);
+        }
+    }
+
+    private boolean isPinned(String key, long now) {
+        Long until = pinnedUntil.get(key);
+        return until != null && until - now > 0;
+    }
+}
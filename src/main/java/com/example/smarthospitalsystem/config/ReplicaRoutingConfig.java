@@ -0,0 +1,75 @@
+package com.example.smarthospitalsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Opt-in read replicas (app.datasource.routing.enabled=true). spring.datasource.* stays the primary;
+// each URL in app.datasource.replicas gets its own small pool with the same credentials unless overridden.
+// @Transactional(readOnly = true) work (including Spring Data's own read methods) is served by a replica.
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(@Value("${app.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesTracker(window);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             ReadYourWritesTracker readYourWritesTracker,
+                                                             MeterRegistry meterRegistry,
+                                                             @Value("${app.datasource.replicas:}") List<String> replicaUrls,
+                                                             @Value("${app.datasource.replica-username:}") String replicaUsername,
+                                                             @Value("${app.datasource.replica-password:}") String replicaPassword,
+                                                             @Value("${app.datasource.replica-pool-size:10}") int replicaPoolSize,
+                                                             @Value("${app.datasource.replica-connection-timeout:2s}") Duration replicaConnectionTimeout) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(replicaUsername.isEmpty() ? properties.determineUsername() : replicaUsername);
+            replica.setPassword(replicaPassword.isEmpty() ? properties.determinePassword() : replicaPassword);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            // Fail over to the primary quickly instead of waiting the default 30s for a dead replica
+            replica.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesTracker, meterRegistry);
+    }
+
+    // What JPA, JdbcTemplate and the transaction managers use. The lazy proxy fetches the real connection
+    // only at the first statement, when the transaction's read-only flag is already set.
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
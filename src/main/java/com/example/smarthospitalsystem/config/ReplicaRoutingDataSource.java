@@ -0,0 +1,110 @@
+package com.example.smarthospitalsystem.config;
+
+import com.example.smarthospitalsystem.service.HospitalUserDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends connections of read-only transactions to the replicas (round robin) and everything else to the primary.
+// Must sit behind a LazyConnectionDataSourceProxy: the transaction's read-only flag is only known once it has
+// begun, after the transaction manager already asked for a connection.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<? extends DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final ReadYourWritesTracker readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter replicaFailures;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+                                    ReadYourWritesTracker readYourWrites, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put("replica-" + i, replicas.get(i));
+        }
+        this.replicaKeys = targets.keySet().stream().map(String::valueOf).filter(k -> !k.equals(PRIMARY)).sorted().toList();
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.primaryConnections = meterRegistry.counter("datasource.routing", "target", "primary");
+        this.replicaConnections = meterRegistry.counter("datasource.routing", "target", "replica");
+        this.replicaFailures = meterRegistry.counter("datasource.routing.replica.failures");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        HospitalUserDetails user = currentUser();
+        if (!readOnly) {
+            // A write (or an unmarked transaction): this user's next reads must see it
+            if (user != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.pin(user);
+            }
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || (user != null && readYourWrites.isPinned(user))) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = getResolvedDataSources().get(key).getConnection();
+            replicaConnections.increment();
+            return connection;
+        } catch (SQLException e) {
+            // A replica that is down only costs latency; its reads go to the primary
+            replicaFailures.increment();
+            log.warn("Replica {} unavailable, reading from the primary: {}", key, e.getMessage());
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+    }
+
+    // Closes the replica pools (the primary is a bean of its own)
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static HospitalUserDetails currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof HospitalUserDetails user ? user : null;
+    }
+}
@@ -1,20 +1,29 @@
 package com.example.smarthospitalsystem.config;
 
+import com.example.smarthospitalsystem.service.IdempotencyStore;
+import com.example.smarthospitalsystem.service.SessionTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.session.SessionRegistryImpl;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.session.HttpSessionEventPublisher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -24,10 +33,31 @@ public class SecurityConfig {
 
     @Autowired
     private CustomLoginSuccessHandler successHandler;
+    @Autowired
+    private SessionTokenService sessionTokenService;
     @Value("${app.frontend.url}")
     private String frontendUrl;
 
+    // Actuator endpoints are called by tools (Prometheus, load balancer health checks), not by the browser app:
+    // HTTP Basic with an ADMIN account and no session, health stays open
     @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/actuator/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .anyRequest().hasRole("ADMIN")
+                )
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -40,6 +70,7 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/login", "/register", "/css/**", "/js/**").permitAll()
+                        .requestMatchers(SessionTokenService.REFRESH_PATH).permitAll() // checks the refresh cookie itself
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll() // Allow pre-flight requests for React
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
@@ -53,9 +84,28 @@ public class SecurityConfig {
                 .logout(logout -> logout
                         .logoutUrl("/logout")
                         .logoutSuccessUrl("/login?logout")
+                        .addLogoutHandler((request, response, auth) -> {
+                            if (sessionTokenService.isEnabled()) {
+                                sessionTokenService.clearCookies(response);
+                            }
+                        })
                         .permitAll()
                 );
 
+        if (sessionTokenService.isEnabled()) {
+            // Stateless mode: every request carries a signed token, any node can serve it (no sticky sessions)
+            http
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .addFilterBefore(new SessionTokenFilter(sessionTokenService), UsernamePasswordAuthenticationFilter.class);
+        } else {
+            // Track sessions per principal so UserSessionService can expire them when an admin edits the account
+            http.sessionManagement(session -> session
+                    .maximumSessions(-1)
+                    .sessionRegistry(sessionRegistry())
+                    .expiredSessionStrategy(event -> event.getResponse().sendError(HttpStatus.UNAUTHORIZED.value()))
+            );
+        }
+
         return http.build();
     }
     @Bean
@@ -64,7 +114,8 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(List.of("*"));
 
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", IdempotencyStore.HEADER));
+        configuration.setExposedHeaders(List.of(IdempotencyStore.REPLAYED_HEADER));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -73,7 +124,23 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(); // Encrypts passwords (security requirement)
+    public SessionRegistry sessionRegistry() {
+        return new SessionRegistryImpl();
+    }
+
+    // Lets the session registry see sessions that time out or are invalidated
+    @Bean
+    public HttpSessionEventPublisher httpSessionEventPublisher() {
+        return new HttpSessionEventPublisher();
+    }
+
+    // Encrypts passwords (security requirement). BCrypt runs on a bounded pool, see BoundedPasswordEncoder
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength,
+                                                  @Value("${app.security.hashing.threads:0}") int threads,
+                                                  @Value("${app.security.hashing.queue-capacity:200}") int queueCapacity,
+                                                  @Value("${app.security.hashing.timeout:10s}") Duration timeout,
+                                                  MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(strength, threads, queueCapacity, timeout, meterRegistry);
     }
 }
\ No newline at end of file
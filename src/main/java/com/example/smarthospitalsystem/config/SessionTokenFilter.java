@@ -0,0 +1,42 @@
+package com.example.smarthospitalsystem.config;
+
+import com.example.smarthospitalsystem.service.HospitalUserDetails;
+import com.example.smarthospitalsystem.service.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Stateless mode: authenticates the request from its signed access token, with no session and no DB lookup.
+// A missing, expired or forged token simply leaves the request anonymous, so /api answers 401 and the
+// client calls /api/auth/refresh. Not a bean on purpose: it must only run inside the security chain.
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private final SessionTokenService tokenService;
+
+    public SessionTokenFilter(SessionTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response,
+                                    @NotNull FilterChain chain) throws ServletException, IOException {
+        String token = SessionTokenService.resolveAccessToken(request);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            HospitalUserDetails user = tokenService.verifyAccess(token);
+            if (user != null) {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+                SecurityContextHolder.setContext(context);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
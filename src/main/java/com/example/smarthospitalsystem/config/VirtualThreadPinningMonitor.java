@@ -0,0 +1,86 @@
+package com.example.smarthospitalsystem.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Reports virtual threads that block while pinned to their carrier thread (on Java 21 that is
+// blocking inside a synchronized block or a native frame), using the JDK's own JFR event.
+// Every pinning site is counted in jvm.threads.virtual.pinned{site=Class.method}; its first occurrence
+// is logged with the stack. Enable with app.diagnostics.pinning-monitor=true next to spring.threads.virtual.enabled.
+@Component
+@ConditionalOnProperty(name = "app.diagnostics.pinning-monitor", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String OUR_PACKAGE = "com.example.smarthospitalsystem.";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${app.diagnostics.pinning-threshold:20ms}") Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Watching for virtual threads pinned longer than {}", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        // Attribute the pin to our code when it is on the stack, otherwise to the innermost frame
+        String site = frames.stream()
+                .filter(f -> f.isJavaFrame() && f.getMethod().getType().getName().startsWith(OUR_PACKAGE))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(VirtualThreadPinningMonitor::frameName)
+                .orElse("unknown");
+
+        Counter.builder("jvm.threads.virtual.pinned").tag("site", site)
+                .description("Virtual threads that blocked while pinned to a carrier thread")
+                .register(meterRegistry).increment();
+
+        if (reportedSites.add(site)) {
+            String stack = frames.stream().limit(25).map(f -> "\tat " + frameName(f) + ":" + f.getLineNumber())
+                    .collect(Collectors.joining("\n"));
+            log.warn("Virtual thread pinned for {} ms at {} (further pins here are only counted)\n{}",
+                    event.getDuration().toMillis(), site, stack);
+        }
+    }
+
+    private static String frameName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -1,15 +1,40 @@
 package com.example.smarthospitalsystem.controller;
 
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.dto.ArchivedPrescriptionSummary;
+import com.example.smarthospitalsystem.dto.CursorPage;
+import com.example.smarthospitalsystem.dto.StatusChangeResult;
+import com.example.smarthospitalsystem.exception.InvalidRequestException;
 import com.example.smarthospitalsystem.model.*;
 import com.example.smarthospitalsystem.repository.*;
+import com.example.smarthospitalsystem.service.AppointmentEventStream;
 import com.example.smarthospitalsystem.service.AppointmentService;
+import com.example.smarthospitalsystem.service.DirectoryVersion;
+import com.example.smarthospitalsystem.service.DoctorAgenda;
+import com.example.smarthospitalsystem.service.HospitalUserDetails;
+import com.example.smarthospitalsystem.service.IdempotencyStore;
+import com.example.smarthospitalsystem.service.SessionTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import com.example.smarthospitalsystem.repository.UserRepository;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -27,104 +52,249 @@ public class APIController {
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired private com.example.smarthospitalsystem.service.DrugApiService drugApiService;
+    @Autowired private com.example.smarthospitalsystem.service.PrescriptionService prescriptionService;
+
+    @Autowired private com.example.smarthospitalsystem.service.DrugSearchService drugSearchService;
 
     @Autowired private PrescriptionRepository prescriptionRepository;
 
-    // 1. Get List of Departments
+    @Autowired private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Autowired private DoctorAgenda doctorAgenda;
+
+    @Autowired private AppointmentEventStream eventStream;
+
+    @Autowired private DirectoryVersion directoryVersion;
+
+    @Autowired private SessionTokenService sessionTokenService;
+
+    @Autowired private IdempotencyStore idempotencyStore;
+
+    // 1. Get List of Departments (conditional: 304 while the directory is unchanged)
     @GetMapping("/departments")
-    public List<Department> getAllDepartments() {
+    public List<Department> getAllDepartments(ServletWebRequest request) {
+        if (directoryNotModified(request)) {
+            return null;
+        }
         return departmentRepository.findAll();
     }
 
-    // 2. Get Doctors by Department
+    // 2. Get Doctors by Department (conditional, same version as the departments)
     @GetMapping("/doctors/{deptId}")
-    public List<Doctor> getDoctorsByDept(@PathVariable Long deptId) {
+    public List<Doctor> getDoctorsByDept(@PathVariable Long deptId, ServletWebRequest request) {
+        if (directoryNotModified(request)) {
+            return null;
+        }
         return doctorRepository.findByDepartmentId(deptId);
     }
 
-    // 3. Book an Appointment
+    // 3. Book an Appointment (send an Idempotency-Key header so a retry returns the first booking instead of a second one)
     @PostMapping("/appointments/book")
-    public Appointment bookAppointment(@RequestBody AppointmentRequest request, Authentication authentication) {
-        // "Authentication" holds the details of the currently logged-in user
-        String patientUsername = authentication.getName();
-        return appointmentService.bookAppointment(patientUsername, request.getDoctorId(), request.getDateTime());
+    public ResponseEntity<Appointment> bookAppointment(@RequestBody AppointmentRequest request,
+                                                       @AuthenticationPrincipal HospitalUserDetails user,
+                                                       @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        // The principal holds the ids of the currently logged-in user (resolved once at login)
+        return idempotent(idempotencyStore.execute("book:" + user.getUserId(), idempotencyKey,
+                Arrays.asList(request.getDoctorId(), request.getDateTime()),
+                () -> appointmentService.bookAppointment(user.getUserId(), request.getDoctorId(), request.getDateTime())));
     }
 
     // 4. Get My Appointments
     @GetMapping("/my-appointments")
-    public List<Appointment> getMyAppointments(Authentication authentication) {
-        return appointmentService.getPatientAppointments(authentication.getName());
+    public List<Appointment> getMyAppointments(@AuthenticationPrincipal HospitalUserDetails user) {
+        return appointmentService.getPatientAppointments(user.getUserId());
+    }
+
+    // 4b. My Appointments, one page at a time (?from=&to=&status=&cursor=&size=)
+    @GetMapping("/my-appointments/page")
+    public CursorPage<AppointmentSummary> getMyAppointmentsPage(
+            @AuthenticationPrincipal HospitalUserDetails user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<Appointment.Status> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return appointmentService.getPatientAppointmentPage(user.getUserId(), from, to, status, cursor, size);
+    }
+
+    // 4c. My archived appointments (closed and older than the archive horizon), same paging as 4b
+    @GetMapping("/my-appointments/archive")
+    public CursorPage<AppointmentSummary> getMyArchivedAppointments(
+            @AuthenticationPrincipal HospitalUserDetails user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<Appointment.Status> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return appointmentService.getPatientArchivePage(user.getUserId(), from, to, status, cursor, size);
     }
 
     // 5. [Doctor Only] Get All Appointments assigned to the logged-in Doctor
     @GetMapping("/doctor/appointments")
-    public List<Appointment> getDoctorAppointments(Authentication authentication) {
+    public List<Appointment> getDoctorAppointments(@AuthenticationPrincipal HospitalUserDetails user) {
         // Security Check: If the user is NOT a doctor, throw an error
-        boolean isDoctor = authentication.getAuthorities().stream()
-                .anyMatch(a -> Objects.equals(a.getAuthority(), "ROLE_DOCTOR"));
+        if (!user.isDoctor()) {
+            throw new RuntimeException("Access Denied: You are not a doctor.");
+        }
 
-        if (!isDoctor) {
+        return appointmentService.getDoctorAppointments(user.getDoctorId());
+    }
+
+    // 5b. [Doctor Only] Same list, one page at a time (?from=&to=&status=&cursor=&size=)
+    @GetMapping("/doctor/appointments/page")
+    public CursorPage<AppointmentSummary> getDoctorAppointmentsPage(
+            @AuthenticationPrincipal HospitalUserDetails user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<Appointment.Status> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        if (!user.isDoctor()) {
+            throw new RuntimeException("Access Denied: You are not a doctor.");
+        }
+
+        return appointmentService.getDoctorAppointmentPage(user.getDoctorId(), from, to, status, cursor, size);
+    }
+
+    // 5c. [Doctor Only] Dashboard agenda: today and upcoming days (or one ?date=), served from memory
+    @GetMapping("/doctor/agenda")
+    public List<AppointmentSummary> getDoctorAgenda(
+            @AuthenticationPrincipal HospitalUserDetails user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        if (!user.isDoctor()) {
             throw new RuntimeException("Access Denied: You are not a doctor.");
         }
 
-        return appointmentService.getDoctorAppointments(authentication.getName());
+        return date == null ? doctorAgenda.getAgenda(user.getDoctorId()) : doctorAgenda.getAgenda(user.getDoctorId(), date);
+    }
+
+    // 5d. [Doctor Only] Archived appointments, same paging as 5b
+    @GetMapping("/doctor/appointments/archive")
+    public CursorPage<AppointmentSummary> getDoctorArchivedAppointments(
+            @AuthenticationPrincipal HospitalUserDetails user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<Appointment.Status> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        if (!user.isDoctor()) {
+            throw new RuntimeException("Access Denied: You are not a doctor.");
+        }
+
+        return appointmentService.getDoctorArchivePage(user.getDoctorId(), from, to, status, cursor, size);
     }
 
     // 6. [Doctor Only] Approve or Reject Appointment
     @PostMapping("/appointments/{id}/status")
-    public Appointment updateStatus(@PathVariable Long id, @RequestBody String status) {
-        // Find the appointment
-        Appointment appointment = appointmentService.getAppointmentById(id); // We need to add this helper in Service
-
+    public Appointment updateStatus(@PathVariable Long id, @RequestBody String status,
+                                    @AuthenticationPrincipal HospitalUserDetails user) {
+        if (!user.isDoctor()) {
+            throw new AccessDeniedException("Only doctors can change appointment status");
+        }
         // Clean up the status string (remove quotes if sent as raw text)
         String cleanStatus = status.replace("\"", "").trim();
-        appointment.setStatus(Appointment.Status.valueOf(cleanStatus));
 
-        return appointmentService.save(appointment); // We need to add 'save' or just use repo
+        Appointment.Status newStatus;
+        try {
+            newStatus = Appointment.Status.valueOf(cleanStatus);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown status '" + cleanStatus + "'");
+        }
+        return appointmentService.updateStatus(user.getDoctorId(), id, newStatus);
     }
 
-    // 7. [Doctor Only] Create Prescription with External API Data
-    @PostMapping("/prescriptions")
-    public Prescription createPrescription(@RequestBody PrescriptionRequest request) {
-        // Find Appointment
-        Appointment appointment = appointmentService.getAppointmentById(request.getAppointmentId());
-
-        // 1. Fetch official info from External API (OpenFDA)
-        String fdaInfo = drugApiService.getDrugInfo(request.getMedicineName());
-
-        // 2. Create Prescription
-        Prescription prescription = new Prescription();
-        prescription.setAppointment(appointment);
-        prescription.setMedicineName(request.getMedicineName());
-        prescription.setDosage(request.getDosage());
-        prescription.setDiagnosis(request.getDiagnosis());
-        // Save the API data into the notes
-        prescription.setNotes("FDA INFO: " + fdaInfo);
-
-        // 3. Mark appointment as COMPLETED
-        appointment.setStatus(Appointment.Status.COMPLETED);
-        appointmentService.save(appointment);
+    // 6b. [Doctor Only] Approve / reject / complete many of the doctor's appointments in one transaction.
+    // Each item may carry the version the doctor last saw; the answer has one result per appointment.
+    @PostMapping("/appointments/status")
+    public List<StatusChangeResult> bulkUpdateStatus(@AuthenticationPrincipal HospitalUserDetails user,
+                                                     @RequestBody BulkStatusRequest request) {
+        if (!user.isDoctor()) {
+            throw new AccessDeniedException("Only doctors can change appointment status");
+        }
+        if (request.getStatus() == null || request.getAppointments() == null) {
+            throw new InvalidRequestException("status and appointments are required");
+        }
+        Map<Long, Long> expectedVersions = new LinkedHashMap<>();
+        for (BulkStatusItem item : request.getAppointments()) {
+            if (item.getId() == null) {
+                throw new InvalidRequestException("Every appointment needs an id");
+            }
+            expectedVersions.put(item.getId(), item.getVersion());
+        }
+        return appointmentService.bulkUpdateStatus(user.getDoctorId(), request.getStatus(), expectedVersions);
+    }
 
-        return prescriptionRepository.save(prescription);
+    // 7. [Doctor Only] Create Prescription with External API Data (Idempotency-Key supported, as for booking)
+    @PostMapping("/prescriptions")
+    public ResponseEntity<Prescription> createPrescription(@RequestBody PrescriptionRequest request,
+                                                          @AuthenticationPrincipal HospitalUserDetails user,
+                                                          @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        // Saved immediately and the appointment marked COMPLETED;
+        // the OpenFDA info is looked up in the background and written into the notes when it arrives
+        return idempotent(idempotencyStore.execute("prescribe:" + user.getUserId(), idempotencyKey,
+                Arrays.asList(request.getAppointmentId(), request.getDiagnosis(), request.getMedicineName(), request.getDosage()),
+                () -> prescriptionService.createPrescription(request.getAppointmentId(), request.getDiagnosis(),
+                        request.getMedicineName(), request.getDosage())));
     }
 
     // 8. [Public/Doctor] Search for drugs (Autocomplete)
     @GetMapping("/drugs/search")
-    public List<String> searchDrugs(@RequestParam String query) {
-        return drugApiService.searchDrugs(query);
+    public List<String> searchDrugs(@RequestParam String query, @AuthenticationPrincipal HospitalUserDetails user) {
+        return drugSearchService.search(query, user == null ? null : user.getUserId());
     }
 
     // 9. [Patient] Get My Prescriptions (Diagnoses)
     @GetMapping("/my-prescriptions")
-    public List<Prescription> getMyPrescriptions(Authentication authentication) {
-        return prescriptionRepository.findByPatientUsername(authentication.getName());
+    public List<Prescription> getMyPrescriptions(@AuthenticationPrincipal HospitalUserDetails user) {
+        return prescriptionRepository.findByPatientUsername(user.getUsername());
+    }
+
+    // 9b. [Patient] Prescriptions of archived appointments
+    @GetMapping("/my-prescriptions/archive")
+    public List<ArchivedPrescriptionSummary> getMyArchivedPrescriptions(@AuthenticationPrincipal HospitalUserDetails user) {
+        return archivedAppointmentRepository.findPrescriptionsByPatientId(user.getUserId());
+    }
+
+    // 10. Live updates (Server-Sent Events): new bookings, status changes and prescriptions for the logged-in
+    // patient or doctor. EventSource resends Last-Event-ID on reconnect; a 'resync' event means re-fetch the lists.
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@AuthenticationPrincipal HospitalUserDetails user,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                   HttpServletResponse response) {
+        response.setHeader("X-Accel-Buffering", "no"); // nginx must not buffer the stream
+        return eventStream.subscribe(user, lastEventId);
+    }
+
+    // 11. Stateless mode: trade the refresh cookie for a new access cookie (the account is re-read from the DB).
+    // Clients call this when /api answers 401; a 401 from here means log in again.
+    @PostMapping("/auth/refresh")
+    public ResponseEntity<Void> refreshToken(HttpServletRequest request, HttpServletResponse response) {
+        if (!sessionTokenService.isEnabled() || sessionTokenService.refresh(request, response) == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/auth/me")
-    public User getCurrentUser(Authentication authentication) {
+    public User getCurrentUser(@AuthenticationPrincipal HospitalUserDetails user) {
         // Return the full user object (ensure password is excluded in a real app, but fine for now)
-        return userRepository.findByUsername(authentication.getName()).orElse(null);
+        return userRepository.findById(user.getUserId()).orElse(null);
+    }
+
+    // A replayed answer is marked, so clients can tell a retry was absorbed
+    private static <T> ResponseEntity<T> idempotent(IdempotencyStore.Result<T> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.replayed()) {
+            response.header(IdempotencyStore.REPLAYED_HEADER, "true");
+        }
+        return response.body(result.value());
+    }
+
+    // Checks If-None-Match / If-Modified-Since against the directory version before any repository call.
+    // Browsers keep the list but revalidate every time (no-cache), so an admin change shows up at once.
+    private boolean directoryNotModified(ServletWebRequest request) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        return request.checkNotModified(directoryVersion.etag(), directoryVersion.lastModified());
     }
 }
 
@@ -135,6 +305,18 @@ class AppointmentRequest {
     private LocalDateTime dateTime;
 }
 
+@lombok.Data
+class BulkStatusRequest {
+    private Appointment.Status status;
+    private List<BulkStatusItem> appointments;
+}
+
+@lombok.Data
+class BulkStatusItem {
+    private Long id;
+    private Long version; // optional: the version the client last saw
+}
+
 @lombok.Data
 class PrescriptionRequest {
     private Long appointmentId;
@@ -1,14 +1,36 @@
 package com.example.smarthospitalsystem.controller;
 
+import com.example.smarthospitalsystem.dto.AuditEntry;
+import com.example.smarthospitalsystem.dto.CursorPage;
+import com.example.smarthospitalsystem.dto.ImportReport;
+import com.example.smarthospitalsystem.dto.UserSummary;
 import com.example.smarthospitalsystem.model.*;
 import com.example.smarthospitalsystem.repository.*;
+import com.example.smarthospitalsystem.service.AppointmentService;
+import com.example.smarthospitalsystem.service.AuditLog;
+import com.example.smarthospitalsystem.service.BulkImportService;
+import com.example.smarthospitalsystem.service.DirectoryVersion;
+import com.example.smarthospitalsystem.service.DrugInfoCache;
+import com.example.smarthospitalsystem.service.EntityCacheService;
+import com.example.smarthospitalsystem.service.ImportRowReader;
+import com.example.smarthospitalsystem.service.UserSessionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -18,6 +40,12 @@ public class AdminController {
     @Autowired private DoctorRepository doctorRepository;
     @Autowired private DepartmentRepository departmentRepository;
     @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private DrugInfoCache drugInfoCache;
+    @Autowired private UserSessionService userSessionService;
+    @Autowired private BulkImportService bulkImportService;
+    @Autowired private DirectoryVersion directoryVersion;
+    @Autowired private EntityCacheService entityCacheService;
+    @Autowired private AuditLog auditLog;
 
     // Regex for Password: 8+ chars, 1 Upper, 1 Number, 1 Special
     private final String PASS_REGEX = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=!]).{8,}$";
@@ -29,6 +57,22 @@ public class AdminController {
         return userRepository.findAll();
     }
 
+    // Same list, one page at a time (?role=&cursor=<last id>&size=)
+    @GetMapping("/users/page")
+    public CursorPage<UserSummary> getUsersPage(@RequestParam(required = false) List<User.Role> role,
+                                                @RequestParam(required = false) Long cursor,
+                                                @RequestParam(defaultValue = "50") int size) {
+        int pageSize = Math.max(1, Math.min(size, AppointmentService.MAX_PAGE_SIZE));
+        Collection<User.Role> roles = role == null || role.isEmpty() ? EnumSet.allOf(User.Role.class) : role;
+
+        List<UserSummary> rows = userRepository.findPage(cursor != null ? cursor : 0L, roles, Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<UserSummary> items = new ArrayList<>(rows.subList(0, pageSize));
+        return new CursorPage<>(items, String.valueOf(items.get(items.size() - 1).id()));
+    }
+
     // 1. Create Patient with CHECKS
     @PostMapping("/patients")
     public ResponseEntity<?> createPatient(@Valid @RequestBody User user) {
@@ -45,6 +89,7 @@ public class AdminController {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         user.setRole(User.Role.PATIENT);
         User savedUser = userRepository.save(user);
+        auditLog.record("admin.patient.created", savedUser.getId(), "username=" + savedUser.getUsername());
 
         return ResponseEntity.ok(savedUser);
     }
@@ -65,19 +110,30 @@ public class AdminController {
         user.setFullName(details.getFullName());
 
         // B. Password Check (Only if password is being updated)
-        if (details.getPassword() != null && !details.getPassword().isEmpty()) {
+        boolean passwordChanged = details.getPassword() != null && !details.getPassword().isEmpty();
+        if (passwordChanged) {
             if (!details.getPassword().matches(PASS_REGEX)) {
                 return ResponseEntity.badRequest().body("{\"error\": \"Weak Password: Needs 8+ chars, 1 Upper, 1 Number, 1 Special (!@#$%).\"}");
             }
             user.setPassword(passwordEncoder.encode(details.getPassword()));
         }
 
-        return ResponseEntity.ok(userRepository.save(user));
+        User saved = userRepository.save(user);
+        auditLog.record("admin.user.updated", id, "username=" + saved.getUsername() + (passwordChanged ? " password=changed" : ""));
+        // Logged-in sessions still carry the old account details
+        userSessionService.invalidate(id);
+        if (saved.getRole() == User.Role.DOCTOR) {
+            directoryVersion.bump(); // the doctor list shows the name
+        }
+        return ResponseEntity.ok(saved);
     }
 
     @DeleteMapping("/users/{id}")
     public void deleteUser(@PathVariable Long id) {
         userRepository.deleteById(id);
+        auditLog.record("admin.user.deleted", id, "");
+        userSessionService.invalidate(id);
+        directoryVersion.bump(); // may have been a doctor
     }
 
     // --- DOCTOR MANAGEMENT ---
@@ -115,7 +171,11 @@ public class AdminController {
         doctor.setDepartment(dept);
         doctor.setSpecialization(request.getSpecialization());
 
-        return ResponseEntity.ok(doctorRepository.save(doctor));
+        Doctor saved = doctorRepository.save(doctor);
+        auditLog.record("admin.doctor.created", saved.getId(), "username=" + savedUser.getUsername()
+                + " department=" + dept.getId() + " specialization=" + saved.getSpecialization());
+        directoryVersion.bump();
+        return ResponseEntity.ok(saved);
     }
 
     // 4. Update Doctor (Handles Dept/Spec/Name)
@@ -143,14 +203,21 @@ public class AdminController {
             userRepository.save(user);
         }
 
-        return ResponseEntity.ok(doctorRepository.save(doctor));
+        Doctor saved = doctorRepository.save(doctor);
+        auditLog.record("admin.doctor.updated", id, "department=" + saved.getDepartment().getId()
+                + " specialization=" + saved.getSpecialization());
+        directoryVersion.bump();
+        return ResponseEntity.ok(saved);
     }
 
     // --- DEPARTMENT MANAGEMENT ---
 
     @PostMapping("/departments")
     public Department createDepartment(@RequestBody Department department) {
-        return departmentRepository.save(department);
+        Department saved = departmentRepository.save(department);
+        auditLog.record("admin.department.created", saved.getId(), "name=" + saved.getName());
+        directoryVersion.bump();
+        return saved;
     }
 
     @PutMapping("/departments/{id}")
@@ -158,7 +225,10 @@ public class AdminController {
         Department dept = departmentRepository.findById(id).orElseThrow();
         dept.setName(details.getName());
         dept.setDescription(details.getDescription());
-        return departmentRepository.save(dept);
+        Department saved = departmentRepository.save(dept);
+        auditLog.record("admin.department.updated", id, "name=" + saved.getName());
+        directoryVersion.bump();
+        return saved;
     }
     @DeleteMapping("/departments/{id}")
     public ResponseEntity<?> deleteDepartment(@PathVariable Long id) {
@@ -168,6 +238,51 @@ public class AdminController {
         }
 
         departmentRepository.deleteById(id);
+        auditLog.record("admin.department.deleted", id, "");
+        directoryVersion.bump();
         return ResponseEntity.ok().build();
     }
+
+    // --- BULK IMPORT ---
+
+    // 5. Onboard many rows at once: POST /api/admin/import/{patients|doctors|departments}
+    // Body is CSV with a header row (text/csv) or one JSON object per line (application/x-ndjson).
+    // Columns: username, password, fullName [, specialization, department | departmentId] or name, description
+    @PostMapping("/import/{kind}")
+    public ImportReport bulkImport(@PathVariable String kind,
+                                   @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                   InputStream body) throws IOException {
+        BulkImportService.Kind importKind = BulkImportService.parseKind(kind);
+        boolean json = contentType != null && contentType.contains("json");
+        ImportRowReader reader = json ? ImportRowReader.ndjson(body) : ImportRowReader.csv(body);
+        ImportReport report = bulkImportService.importRows(importKind, reader);
+        auditLog.record("admin.import", null, "kind=" + importKind + " imported=" + report.imported() + " failed=" + report.failed());
+        if (importKind != BulkImportService.Kind.PATIENTS && report.imported() > 0) {
+            directoryVersion.bump();
+        }
+        return report;
+    }
+
+    // --- AUDIT ---
+
+    // 6. History of appointment, prescription and admin changes written in [from, to), oldest first
+    @GetMapping("/audit")
+    public List<AuditEntry> getAuditLog(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                        @RequestParam(defaultValue = "500") int limit) throws IOException {
+        return auditLog.scan(from, to != null ? to : Instant.now(), Math.max(1, Math.min(limit, 5000)));
+    }
+
+    // --- MONITORING ---
+
+    @GetMapping("/drug-cache/stats")
+    public Map<String, Long> getDrugCacheStats() {
+        return drugInfoCache.stats();
+    }
+
+    // Hibernate second-level / query cache hit ratios per region
+    @GetMapping("/entity-cache/stats")
+    public Map<String, Map<String, Object>> getEntityCacheStats() {
+        return entityCacheService.stats();
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.smarthospitalsystem.controller;
 
+import com.example.smarthospitalsystem.exception.PasswordHashingOverloadedException;
 import com.example.smarthospitalsystem.model.User;
 import com.example.smarthospitalsystem.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,8 +50,13 @@ public class AuthController {
             return "register";
         }
 
-        // 3. Save
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        // 3. Save (hashing is refused when the server is flooded with sign-ups)
+        try {
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+        } catch (PasswordHashingOverloadedException e) {
+            model.addAttribute("error", "The server is busy, please try again in a moment.");
+            return "register";
+        }
         user.setRole(com.example.smarthospitalsystem.model.User.Role.PATIENT);
         userRepository.save(user);
 
@@ -0,0 +1,26 @@
+package com.example.smarthospitalsystem.dto;
+
+import com.example.smarthospitalsystem.exception.InvalidRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Position after the last row of a page: (appointmentTime, id), sent to clients as an opaque string
+public record AppointmentCursor(LocalDateTime appointmentTime, Long id) {
+
+    public String encode() {
+        String raw = appointmentTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AppointmentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new AppointmentCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+}
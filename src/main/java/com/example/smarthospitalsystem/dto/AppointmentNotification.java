@@ -0,0 +1,9 @@
+package com.example.smarthospitalsystem.dto;
+
+import com.example.smarthospitalsystem.model.Appointment;
+
+// Payload of one /api/events message. 'type' repeats the SSE event name:
+// appointment.created, appointment.status or prescription.created (prescriptionId set only for the last one).
+public record AppointmentNotification(String type, AppointmentSummary appointment,
+                                      Appointment.Status previousStatus, Long prescriptionId) {
+}
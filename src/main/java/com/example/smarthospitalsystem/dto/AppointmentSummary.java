@@ -0,0 +1,31 @@
+package com.example.smarthospitalsystem.dto;
+
+import com.example.smarthospitalsystem.model.Appointment;
+
+import java.time.LocalDateTime;
+
+// Flat read model of an appointment for list views (no nested User/Doctor/Department entities)
+public record AppointmentSummary(
+        Long id,
+        LocalDateTime appointmentTime,
+        Appointment.Status status,
+        Long patientId,
+        String patientName,
+        Long doctorId,
+        String doctorName,
+        String specialization,
+        String departmentName) {
+
+    public static AppointmentSummary of(Appointment appointment) {
+        return new AppointmentSummary(
+                appointment.getId(),
+                appointment.getAppointmentTime(),
+                appointment.getStatus(),
+                appointment.getPatient().getId(),
+                appointment.getPatient().getFullName(),
+                appointment.getDoctor().getId(),
+                appointment.getDoctor().getUser().getFullName(),
+                appointment.getDoctor().getSpecialization(),
+                appointment.getDoctor().getDepartment().getName());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.smarthospitalsystem.dto;
+
+import java.time.LocalDateTime;
+
+// Flat view of a prescription whose appointment was moved to the archive
+public record ArchivedPrescriptionSummary(
+        Long id,
+        Long appointmentId,
+        LocalDateTime appointmentTime,
+        String doctorName,
+        String diagnosis,
+        String medicineName,
+        String dosage,
+        String notes) {
+}
@@ -0,0 +1,9 @@
+package com.example.smarthospitalsystem.dto;
+
+import java.time.Instant;
+
+// One record of the audit log. 'sequence' is gap-free and increasing, 'time' is when it was written (never
+// decreasing), 'actor' the username that caused it ("system" for background work), 'subjectId' the id of the
+// appointment / user / doctor / department it is about (null if none).
+public record AuditEntry(long sequence, Instant time, String type, String actor, Long subjectId, String details) {
+}
@@ -0,0 +1,7 @@
+package com.example.smarthospitalsystem.dto;
+
+import java.util.List;
+
+// One page of a keyset-paginated list. Pass 'nextCursor' back as ?cursor= to get the next page (null = last page).
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,11 @@
+package com.example.smarthospitalsystem.dto;
+
+import java.util.List;
+
+// Result of a bulk import. 'errors' lists the rejected rows by input line (capped, see errorsTruncated).
+public record ImportReport(String kind, long rows, long imported, long failed,
+                           List<RowError> errors, boolean errorsTruncated, long elapsedMillis) {
+
+    public record RowError(long line, String message) {
+    }
+}
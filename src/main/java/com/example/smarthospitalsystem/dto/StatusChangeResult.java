@@ -0,0 +1,16 @@
+package com.example.smarthospitalsystem.dto;
+
+import com.example.smarthospitalsystem.model.Appointment;
+
+// Outcome of one appointment in a bulk status change. 'status' / 'version' are the values after the call
+// (null when the appointment was not found), so a client can retry a CONFLICT with the fresh version.
+public record StatusChangeResult(Long id, Outcome outcome, Appointment.Status status, Long version) {
+
+    public enum Outcome {
+        UPDATED,            // moved to the requested status
+        UNCHANGED,          // already had it
+        INVALID_TRANSITION, // not allowed from its current status (see Appointment.Status.canMoveTo)
+        CONFLICT,           // the version did not match: changed by someone else since it was read
+        NOT_FOUND           // no such appointment for this doctor
+    }
+}
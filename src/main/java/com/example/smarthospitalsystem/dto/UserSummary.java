@@ -0,0 +1,6 @@
+package com.example.smarthospitalsystem.dto;
+
+import com.example.smarthospitalsystem.model.User;
+
+public record UserSummary(Long id, String username, String fullName, User.Role role) {
+}
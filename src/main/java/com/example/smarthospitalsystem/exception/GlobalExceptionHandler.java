@@ -3,6 +3,8 @@ package com.example.smarthospitalsystem.exception;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
@@ -46,4 +48,50 @@ public class GlobalExceptionHandler {
         }
         return new ResponseEntity<>(Map.of("error", errorMessage), HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+
+    // 3. Double booking (slot already taken for that doctor)
+    @ExceptionHandler(SlotUnavailableException.class)
+    public ResponseEntity<@NotNull Map<String, String>> handleSlotUnavailable(SlotUnavailableException ex) {
+        return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    // 3b. Status change not allowed from the current status, or the appointment changed concurrently
+    @ExceptionHandler(InvalidStatusTransitionException.class)
+    public ResponseEntity<@NotNull Map<String, String>> handleInvalidTransition(InvalidStatusTransitionException ex) {
+        return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<@NotNull Map<String, String>> handleOptimisticLocking(OptimisticLockingFailureException ex) {
+        return new ResponseEntity<>(Map.of("error", "The appointment was changed by someone else, reload and try again"),
+                HttpStatus.CONFLICT);
+    }
+
+    // 3c. Idempotency-Key sent again with a different request body
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<@NotNull Map<String, String>> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    // 4. Bad request parameters (unknown status, malformed cursor, ...)
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<@NotNull Map<String, String>> handleInvalidRequest(InvalidRequestException ex) {
+        return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    // 5. Password hashing pool saturated (registration / account surge)
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<@NotNull Map<String, String>> handleHashingOverloaded(PasswordHashingOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    // 6. Still starting up (e.g. bookings before the slot index is loaded)
+    @ExceptionHandler(ServiceNotReadyException.class)
+    public ResponseEntity<@NotNull Map<String, String>> handleNotReady(ServiceNotReadyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", ex.getMessage()));
+    }
+}
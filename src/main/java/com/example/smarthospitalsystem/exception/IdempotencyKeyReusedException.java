@@ -0,0 +1,8 @@
+package com.example.smarthospitalsystem.exception;
+
+// Thrown when an Idempotency-Key comes back with a different request than the one it was first used for
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
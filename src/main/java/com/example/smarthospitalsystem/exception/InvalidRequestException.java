@@ -0,0 +1,9 @@
+package com.example.smarthospitalsystem.exception;
+
+// Thrown when a client sent something unusable: a malformed paging cursor, an unknown status or import kind,
+// a bulk request that is too large. The message is meant for the client (400).
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.smarthospitalsystem.exception;
+
+// Thrown when an appointment cannot move from its current status to the requested one (e.g. COMPLETED -> APPROVED)
+public class InvalidStatusTransitionException extends RuntimeException {
+    public InvalidStatusTransitionException(String message) {
+        super(message);
+    }
+}
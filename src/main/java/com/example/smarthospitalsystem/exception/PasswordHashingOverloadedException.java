@@ -0,0 +1,12 @@
+package com.example.smarthospitalsystem.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// The password-hashing pool is saturated. Extends AuthenticationServiceException so a login
+// that hits it fails like any other authentication error; elsewhere it is answered with 503.
+public class PasswordHashingOverloadedException extends AuthenticationServiceException {
+
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+}
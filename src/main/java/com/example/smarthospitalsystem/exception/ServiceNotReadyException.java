@@ -0,0 +1,8 @@
+package com.example.smarthospitalsystem.exception;
+
+// The application is up but still loading state it needs for this request (answered with 503)
+public class ServiceNotReadyException extends RuntimeException {
+    public ServiceNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.smarthospitalsystem.exception;
+
+// Thrown when a doctor already has an appointment in the requested time slot
+public class SlotUnavailableException extends RuntimeException {
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -2,11 +2,17 @@ package com.example.smarthospitalsystem.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "appointments")
+// Indexes back the per-doctor / per-patient time-ordered lookups and the archival scan by status
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_doctor_time", columnList = "doctor_id, appointment_time"),
+        @Index(name = "idx_appointments_patient_time", columnList = "patient_id, appointment_time"),
+        @Index(name = "idx_appointments_status", columnList = "status")
+})
 public class Appointment {
 
     @Id
@@ -29,7 +35,24 @@ public class Appointment {
     @Enumerated(EnumType.STRING)
     private Status status; // PENDING, APPROVED, REJECTED, COMPLETED
 
+    // Optimistic locking: bumped on every change, so two concurrent edits cannot silently overwrite each other.
+    // Plain JDBC writers (bulk status change) bump it too; the default covers rows that existed before the column.
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
     public enum Status {
-        PENDING, APPROVED, REJECTED, COMPLETED
+        PENDING, APPROVED, REJECTED, COMPLETED;
+
+        // PENDING -> APPROVED / REJECTED / COMPLETED (seen without approval), APPROVED -> COMPLETED / REJECTED
+        // (cancelled). REJECTED and COMPLETED are final.
+        public boolean canMoveTo(Status next) {
+            return switch (this) {
+                case PENDING -> next == APPROVED || next == REJECTED || next == COMPLETED;
+                case APPROVED -> next == COMPLETED || next == REJECTED;
+                case REJECTED, COMPLETED -> false;
+            };
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.smarthospitalsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Cold copy of a closed (COMPLETED / REJECTED) appointment, moved out of 'appointments' by AppointmentArchiver.
+// Keeps the original id; patient and doctor are plain ids so the row never blocks deleting an account.
+@Entity
+@Data
+@Table(name = "archived_appointments", indexes = {
+        @Index(name = "idx_archived_appointments_doctor_time", columnList = "doctor_id, appointment_time"),
+        @Index(name = "idx_archived_appointments_patient_time", columnList = "patient_id, appointment_time")
+})
+public class ArchivedAppointment {
+
+    @Id
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(nullable = false)
+    private LocalDateTime appointmentTime;
+
+    @Enumerated(EnumType.STRING)
+    private Appointment.Status status;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
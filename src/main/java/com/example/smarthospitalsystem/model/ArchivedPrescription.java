@@ -0,0 +1,31 @@
+package com.example.smarthospitalsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Prescription of an archived appointment (moved together with it, same id)
+@Entity
+@Data
+@Table(name = "archived_prescriptions", indexes = {
+        @Index(name = "idx_archived_prescriptions_appointment", columnList = "appointment_id")
+})
+public class ArchivedPrescription {
+
+    @Id
+    private Long id;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    private String diagnosis;
+
+    private String medicineName;
+
+    private String dosage;
+
+    private String notes;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -2,9 +2,13 @@ package com.example.smarthospitalsystem.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctors") // joined into every appointment and directory listing
 @Table(name = "doctors")
 public class Doctor {
 
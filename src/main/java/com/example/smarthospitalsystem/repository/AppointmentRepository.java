@@ -1,8 +1,14 @@
 package com.example.smarthospitalsystem.repository;
 
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
 import com.example.smarthospitalsystem.model.Appointment;
 import org.jspecify.annotations.NullMarked;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @NullMarked
@@ -12,4 +18,80 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 
     // Fetch all appointments for a specific doctor
     List<Appointment> findByDoctorId(Long doctorId);
-}
\ No newline at end of file
+
+    // Keyset-paginated list views: one row per appointment, ordered by (appointmentTime, id),
+    // starting strictly after (afterTime, afterId). Filters are applied in the query.
+    @Query("SELECT new com.example.smarthospitalsystem.dto.AppointmentSummary(a.id, a.appointmentTime, a.status, " +
+            "p.id, p.fullName, d.id, du.fullName, d.specialization, dep.name) " +
+            "FROM Appointment a JOIN a.patient p JOIN a.doctor d JOIN d.user du JOIN d.department dep " +
+            "WHERE p.id = :patientId AND a.status IN :statuses AND a.appointmentTime < :before " +
+            "AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId)) " +
+            "ORDER BY a.appointmentTime, a.id")
+    List<AppointmentSummary> findPatientPage(@Param("patientId") Long patientId,
+                                             @Param("statuses") Collection<Appointment.Status> statuses,
+                                             @Param("afterTime") LocalDateTime afterTime,
+                                             @Param("afterId") Long afterId,
+                                             @Param("before") LocalDateTime before,
+                                             Limit limit);
+
+    @Query("SELECT new com.example.smarthospitalsystem.dto.AppointmentSummary(a.id, a.appointmentTime, a.status, " +
+            "p.id, p.fullName, d.id, du.fullName, d.specialization, dep.name) " +
+            "FROM Appointment a JOIN a.patient p JOIN a.doctor d JOIN d.user du JOIN d.department dep " +
+            "WHERE d.id = :doctorId AND a.status IN :statuses AND a.appointmentTime < :before " +
+            "AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId)) " +
+            "ORDER BY a.appointmentTime, a.id")
+    List<AppointmentSummary> findDoctorPage(@Param("doctorId") Long doctorId,
+                                            @Param("statuses") Collection<Appointment.Status> statuses,
+                                            @Param("afterTime") LocalDateTime afterTime,
+                                            @Param("afterId") Long afterId,
+                                            @Param("before") LocalDateTime before,
+                                            Limit limit);
+
+    // Occupied slots from a point in time onwards (used to rebuild the in-memory slot index)
+    @Query("SELECT a.doctor.id AS doctorId, a.appointmentTime AS appointmentTime FROM Appointment a " +
+            "WHERE a.appointmentTime >= :from AND a.status <> :excluded")
+    List<BookedSlot> findBookedSlotsFrom(@Param("from") LocalDateTime from, @Param("excluded") Appointment.Status excluded);
+
+    // Appointments holding [from, to) for the doctor (the database side of the double-booking check)
+    @Query("SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId " +
+            "AND a.appointmentTime >= :from AND a.appointmentTime < :to AND a.status <> :excluded")
+    long countBookedBetween(@Param("doctorId") Long doctorId, @Param("from") LocalDateTime from,
+                            @Param("to") LocalDateTime to, @Param("excluded") Appointment.Status excluded);
+
+    // Every appointment in [from, to) as flat rows, grouped per doctor in time order (rebuilds DoctorAgenda)
+    @Query("SELECT new com.example.smarthospitalsystem.dto.AppointmentSummary(a.id, a.appointmentTime, a.status, " +
+            "p.id, p.fullName, d.id, du.fullName, d.specialization, dep.name) " +
+            "FROM Appointment a JOIN a.patient p JOIN a.doctor d JOIN d.user du JOIN d.department dep " +
+            "WHERE a.appointmentTime >= :from AND a.appointmentTime < :to " +
+            "ORDER BY d.id, a.appointmentTime, a.id")
+    List<AppointmentSummary> findAgendaBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Current status and version of the given appointments (bulk status change)
+    @Query("SELECT a.id AS id, a.doctor.id AS doctorId, a.status AS status, a.version AS version, " +
+            "a.appointmentTime AS appointmentTime FROM Appointment a WHERE a.id IN :ids")
+    List<StatusRow> findStatusRows(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.smarthospitalsystem.dto.AppointmentSummary(a.id, a.appointmentTime, a.status, " +
+            "p.id, p.fullName, d.id, du.fullName, d.specialization, dep.name) " +
+            "FROM Appointment a JOIN a.patient p JOIN a.doctor d JOIN d.user du JOIN d.department dep " +
+            "WHERE a.id IN :ids")
+    List<AppointmentSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface StatusRow {
+        Long getId();
+
+        Long getDoctorId();
+
+        Appointment.Status getStatus();
+
+        long getVersion();
+
+        LocalDateTime getAppointmentTime();
+    }
+
+    interface BookedSlot {
+        Long getDoctorId();
+
+        LocalDateTime getAppointmentTime();
+    }
+}
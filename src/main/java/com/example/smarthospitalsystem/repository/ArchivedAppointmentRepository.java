@@ -0,0 +1,56 @@
+package com.example.smarthospitalsystem.repository;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.dto.ArchivedPrescriptionSummary;
+import com.example.smarthospitalsystem.model.Appointment;
+import com.example.smarthospitalsystem.model.ArchivedAppointment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Read side of the cold tier. Same keyset contract as AppointmentRepository's page queries,
+// joining names in by id since archived rows carry no entity links.
+@Transactional(readOnly = true)
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    @Query("SELECT new com.example.smarthospitalsystem.dto.AppointmentSummary(a.id, a.appointmentTime, a.status, " +
+            "p.id, p.fullName, d.id, du.fullName, d.specialization, dep.name) " +
+            "FROM ArchivedAppointment a JOIN User p ON p.id = a.patientId JOIN Doctor d ON d.id = a.doctorId " +
+            "JOIN d.user du JOIN d.department dep " +
+            "WHERE a.patientId = :patientId AND a.status IN :statuses AND a.appointmentTime < :before " +
+            "AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId)) " +
+            "ORDER BY a.appointmentTime, a.id")
+    List<AppointmentSummary> findPatientPage(@Param("patientId") Long patientId,
+                                             @Param("statuses") Collection<Appointment.Status> statuses,
+                                             @Param("afterTime") LocalDateTime afterTime,
+                                             @Param("afterId") Long afterId,
+                                             @Param("before") LocalDateTime before,
+                                             Limit limit);
+
+    @Query("SELECT new com.example.smarthospitalsystem.dto.AppointmentSummary(a.id, a.appointmentTime, a.status, " +
+            "p.id, p.fullName, d.id, du.fullName, d.specialization, dep.name) " +
+            "FROM ArchivedAppointment a JOIN User p ON p.id = a.patientId JOIN Doctor d ON d.id = a.doctorId " +
+            "JOIN d.user du JOIN d.department dep " +
+            "WHERE a.doctorId = :doctorId AND a.status IN :statuses AND a.appointmentTime < :before " +
+            "AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId)) " +
+            "ORDER BY a.appointmentTime, a.id")
+    List<AppointmentSummary> findDoctorPage(@Param("doctorId") Long doctorId,
+                                            @Param("statuses") Collection<Appointment.Status> statuses,
+                                            @Param("afterTime") LocalDateTime afterTime,
+                                            @Param("afterId") Long afterId,
+                                            @Param("before") LocalDateTime before,
+                                            Limit limit);
+
+    // Archived prescriptions of a patient, newest appointment first
+    @Query("SELECT new com.example.smarthospitalsystem.dto.ArchivedPrescriptionSummary(rx.id, a.id, a.appointmentTime, " +
+            "du.fullName, rx.diagnosis, rx.medicineName, rx.dosage, rx.notes) " +
+            "FROM ArchivedPrescription rx JOIN ArchivedAppointment a ON a.id = rx.appointmentId " +
+            "JOIN Doctor d ON d.id = a.doctorId JOIN d.user du " +
+            "WHERE a.patientId = :patientId ORDER BY a.appointmentTime DESC")
+    List<ArchivedPrescriptionSummary> findPrescriptionsByPatientId(@Param("patientId") Long patientId);
+}
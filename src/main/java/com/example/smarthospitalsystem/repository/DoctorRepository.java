@@ -2,13 +2,30 @@ package com.example.smarthospitalsystem.repository;
 
 import com.example.smarthospitalsystem.model.Doctor;
 import org.jspecify.annotations.NullMarked;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 @NullMarked
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
-    // Find doctors by their department ID
+    // Find doctors by their department ID (query cache; invalidated whenever the doctors table changes)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Transactional(readOnly = true)
     List<Doctor> findByDepartmentId(Long departmentId);
 
+    // Also on the login path (doctor id for the session)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Doctor> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Row lock on the doctor: bookings for one doctor queue up here, whichever node they arrive on
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Doctor d WHERE d.id = :id")
+    Optional<Doctor> findByIdForBooking(@Param("id") Long id);
+}
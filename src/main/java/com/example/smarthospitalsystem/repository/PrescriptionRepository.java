@@ -3,13 +3,29 @@ package com.example.smarthospitalsystem.repository;
 import com.example.smarthospitalsystem.model.Prescription;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 public interface PrescriptionRepository extends JpaRepository<@NotNull Prescription, @NotNull Long> {
 
-    // Fetch prescriptions linked to appointments of a specific patient
-    @Query("SELECT p FROM Prescription p WHERE p.appointment.patient.username = :username")
+    // Fetch prescriptions linked to appointments of a specific patient.
+    // Everything the medical history view serializes is fetch-joined, so this is a single SELECT however many rows come back.
+    @Query("SELECT p FROM Prescription p " +
+            "JOIN FETCH p.appointment a " +
+            "JOIN FETCH a.patient patient " +
+            "JOIN FETCH a.doctor d " +
+            "JOIN FETCH d.user " +
+            "JOIN FETCH d.department " +
+            "WHERE patient.username = :username")
+    @Transactional(readOnly = true)
     List<Prescription> findByPatientUsername(@Param("username") String username);
-}
\ No newline at end of file
+
+    // Fill in the FDA notes after the background lookup, without reloading the prescription
+    @Modifying
+    @Transactional
+    @Query("UPDATE Prescription p SET p.notes = :notes WHERE p.id = :id")
+    int updateNotes(@Param("id") Long id, @Param("notes") String notes);
+}
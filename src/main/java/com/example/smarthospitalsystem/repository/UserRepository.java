@@ -1,10 +1,25 @@
 package com.example.smarthospitalsystem.repository;
 
+import com.example.smarthospitalsystem.dto.UserSummary;
 import com.example.smarthospitalsystem.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    // Used to find a user during login
+    // Used to find a user during login (query cache: repeated logins resolve the id without SQL)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    // Keyset-paginated admin user list, ordered by id
+    @Query("SELECT new com.example.smarthospitalsystem.dto.UserSummary(u.id, u.username, u.fullName, u.role) " +
+            "FROM User u WHERE u.id > :afterId AND u.role IN :roles ORDER BY u.id")
+    List<UserSummary> findPage(@Param("afterId") Long afterId, @Param("roles") Collection<User.Role> roles, Limit limit);
+}
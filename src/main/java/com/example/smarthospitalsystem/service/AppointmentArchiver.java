@@ -0,0 +1,104 @@
+package com.example.smarthospitalsystem.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Hot/cold tiering: moves closed appointments (COMPLETED / REJECTED) older than the horizon, together with
+// their prescriptions, into archived_appointments / archived_prescriptions.
+// Works in batches of 'app.archive.batch-size' rows, one short transaction each, with a pause in between,
+// so row locks stay brief and the job never competes with daytime traffic for long.
+@Service
+@ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class AppointmentArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentArchiver.class);
+
+    private static final List<String> CLOSED = List.of("COMPLETED", "REJECTED");
+
+    @Autowired private NamedParameterJdbcTemplate jdbc;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${app.archive.horizon-days:365}")
+    private int horizonDays;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.archive.pause:200ms}")
+    private Duration pause;
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void archiveNightly() {
+        archiveBefore(LocalDate.now().minusDays(horizonDays).atStartOfDay());
+    }
+
+    // Moves every closed appointment before 'cutoff'; returns how many were archived
+    public long archiveBefore(LocalDateTime cutoff) {
+        long started = System.nanoTime();
+        long archived = 0;
+        int moved;
+        do {
+            moved = archiveBatch(cutoff);
+            archived += moved;
+            if (moved == batchSize && !pause.isZero()) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } while (moved == batchSize);
+
+        if (archived > 0) {
+            log.info("Archived {} appointments older than {} in {} ms", archived, cutoff,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer moved = transactionTemplate.execute(status -> {
+            // 1. Lock one batch, so a status change cannot slip in between the copy and the delete
+            List<Long> ids = jdbc.queryForList("SELECT id FROM appointments " +
+                            "WHERE status IN (:closed) AND appointment_time < :cutoff ORDER BY id LIMIT :limit FOR UPDATE",
+                    new MapSqlParameterSource("closed", CLOSED).addValue("cutoff", cutoff).addValue("limit", batchSize),
+                    Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource batch = new MapSqlParameterSource("ids", ids).addValue("now", now);
+
+            // 2. Copy into the archive under the same ids, prescriptions along with their appointment
+            jdbc.update("INSERT INTO archived_appointments (id, patient_id, doctor_id, appointment_time, status, archived_at) " +
+                    "SELECT id, patient_id, doctor_id, appointment_time, status, :now FROM appointments WHERE id IN (:ids)", batch);
+            jdbc.update("INSERT INTO archived_prescriptions (id, appointment_id, diagnosis, medicine_name, dosage, notes, archived_at) " +
+                    "SELECT id, appointment_id, diagnosis, medicine_name, dosage, notes, :now FROM prescriptions " +
+                    "WHERE appointment_id IN (:ids)", batch);
+
+            // 3. Remove from the hot tables (child rows first for the foreign key)
+            jdbc.update("DELETE FROM prescriptions WHERE appointment_id IN (:ids)", batch);
+            jdbc.update("DELETE FROM appointments WHERE id IN (:ids)", batch);
+            return ids.size();
+        });
+        int count = moved == null ? 0 : moved;
+        meterRegistry.counter("appointments.archived").increment(count);
+        return count;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.model.Appointment;
+
+// Published by AppointmentService after an appointment was stored (booked, status changed, completed).
+// 'created' marks a new booking; 'previousStatus' is null for one, or when the caller did not know the old state.
+// It is published inside the transaction: read models and client pushes listen with
+// @TransactionalEventListener(fallbackExecution = true), so they only ever see committed changes.
+public record AppointmentChangedEvent(AppointmentSummary appointment, Appointment.Status previousStatus, boolean created) {
+}
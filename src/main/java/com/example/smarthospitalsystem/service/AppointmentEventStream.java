@@ -0,0 +1,273 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentNotification;
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes appointment and prescription changes to the patient and doctor involved over Server-Sent Events.
+// An open stream is just an async request plus a small queue: no thread waits on an idle connection.
+// Sends run on virtual threads, one drain task per connection that has something queued, so a slow
+// client never delays the others. Recent events are kept in a ring buffer for Last-Event-ID resume.
+// Each queue holds at most 'max-queued' messages: a client that falls further behind gets "resync" instead.
+@Component
+public class AppointmentEventStream {
+
+    // Sent when a Last-Event-ID can no longer be replayed (restart or too old): the client should re-fetch
+    static final String RESYNC = "resync";
+
+    private final long timeoutMillis;
+    private final int maxQueued;
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final MeterRegistry meterRegistry;
+
+    // "patient:<userId>" / "doctor:<doctorId>" -> open connections (several tabs are fine)
+    private final Map<String, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    // Event ids are "<epoch>-<sequence>"; the epoch changes on every start, so stale ids are detected
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Entry[] ring;
+    private long nextSequence = 1; // guarded by 'ring'
+
+    public AppointmentEventStream(MeterRegistry meterRegistry,
+                                  @Value("${app.events.replay-buffer:1024}") int replayBuffer,
+                                  @Value("${app.events.timeout:30m}") Duration timeout,
+                                  @Value("${app.events.max-queued:256}") int maxQueued) {
+        this.meterRegistry = meterRegistry;
+        this.ring = new Entry[Math.max(1, replayBuffer)];
+        this.timeoutMillis = timeout.toMillis();
+        this.maxQueued = Math.max(2, maxQueued); // room for the resync marker and one event after it
+        Gauge.builder("events.connections", connections, AtomicInteger::get)
+                .description("Open /api/events streams").register(meterRegistry);
+    }
+
+    // Opens a stream for the user, first replaying what they missed since 'lastEventId' (if given)
+    public SseEmitter subscribe(HospitalUserDetails user, String lastEventId) {
+        String key = user.isDoctor() ? doctorKey(user.getDoctorId()) : patientKey(user.getUserId());
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Connection connection = new Connection(key, emitter);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection)); // the browser's EventSource reconnects with Last-Event-ID
+        emitter.onError(e -> remove(connection));
+
+        // Register and queue the missed events under the same lock publish() takes, so every event reaches the
+        // connection exactly once - from the buffer or live - and in sequence order (EventSource does not de-duplicate)
+        synchronized (ring) {
+            subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(connection);
+            connections.incrementAndGet();
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(connection, lastEventId.trim());
+            }
+        }
+        return emitter;
+    }
+
+    // Overridden by tests to capture what is sent
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        String type = event.created() ? "appointment.created" : "appointment.status";
+        publish(event.appointment(), new AppointmentNotification(type, event.appointment(), event.previousStatus(), null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrescriptionCreated(PrescriptionCreatedEvent event) {
+        publish(event.appointment(), new AppointmentNotification("prescription.created", event.appointment(),
+                null, event.prescriptionId()));
+    }
+
+    // Keeps proxies from closing idle streams and finds connections whose client went away
+    @Scheduled(fixedDelayString = "${app.events.heartbeat:25s}")
+    public void heartbeat() {
+        for (Set<Connection> set : subscribers.values()) {
+            for (Connection connection : set) {
+                connection.enqueue(Message.HEARTBEAT);
+            }
+        }
+    }
+
+    // Numbering and fan-out happen under one lock, so every connection queues events in sequence order.
+    // Queuing only adds to a queue (and maybe starts a drain task); the sends themselves happen outside.
+    private void publish(AppointmentSummary appointment, AppointmentNotification notification) {
+        String[] audience = {patientKey(appointment.patientId()), doctorKey(appointment.doctorId())};
+        synchronized (ring) {
+            long sequence = nextSequence++;
+            Entry entry = new Entry(sequence, audience, new Message(epoch + "-" + sequence, notification));
+            ring[(int) (sequence % ring.length)] = entry;
+            for (String key : audience) {
+                Set<Connection> set = subscribers.get(key);
+                if (set != null) {
+                    set.forEach(c -> c.enqueue(entry.message));
+                }
+            }
+        }
+    }
+
+    // Caller holds 'ring'
+    private void replay(Connection connection, String lastEventId) {
+        long after = parseSequence(lastEventId);
+        long oldest = Math.max(1, nextSequence - ring.length);
+        if (after < 0 || after + 1 < oldest || after >= nextSequence) {
+            connection.enqueue(Message.RESYNC);
+            return;
+        }
+        for (long s = after + 1; s < nextSequence; s++) {
+            Entry entry = ring[(int) (s % ring.length)];
+            if (entry.isFor(connection.key)) {
+                connection.enqueue(entry.message);
+            }
+        }
+    }
+
+    // Sequence number of an id from this run, or -1 if it is malformed or from an earlier start
+    private long parseSequence(String eventId) {
+        int dash = eventId.indexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void remove(Connection connection) {
+        if (connection.closed.compareAndSet(false, true)) {
+            connections.decrementAndGet();
+            subscribers.computeIfPresent(connection.key, (k, set) -> {
+                set.remove(connection);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Set<Connection> set : subscribers.values()) {
+            set.forEach(c -> c.emitter.complete());
+        }
+        sender.shutdown();
+    }
+
+    private static String patientKey(Long userId) {
+        return "patient:" + userId;
+    }
+
+    private static String doctorKey(Long doctorId) {
+        return "doctor:" + doctorId;
+    }
+
+    private record Entry(long sequence, String[] audience, Message message) {
+
+        boolean isFor(String key) {
+            for (String k : audience) {
+                if (k.equals(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Message(String id, AppointmentNotification notification) {
+
+        static final Message HEARTBEAT = new Message(null, null);
+        static final Message RESYNC = new Message(null, null);
+    }
+
+    private final class Connection {
+
+        private final String key;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue = new LinkedBlockingQueue<>(maxQueued);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(String key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        // At most one drain task per connection, so messages go out in order
+        private void enqueue(Message message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(message) && message != Message.HEARTBEAT) {
+                // Too far behind to catch up event by event: drop the backlog and tell the client to re-fetch,
+                // which covers everything dropped. Events from here on follow the resync as usual.
+                meterRegistry.counter("events.overflow").increment();
+                queue.clear();
+                queue.offer(Message.RESYNC);
+                queue.offer(message);
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false); // shutting down; never fail the request that published the event
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Message message;
+                while (!closed.get() && (message = queue.poll()) != null) {
+                    send(message);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter is finished and the connection dropped
+                meterRegistry.counter("events.dropped").increment();
+                remove(this);
+                queue.clear();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // Something may have been queued after the last poll but before 'draining' was cleared
+            if (!queue.isEmpty() && !closed.get() && draining.compareAndSet(false, true)) {
+                drain();
+            }
+        }
+
+        private void send(Message message) throws IOException {
+            if (message == Message.HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } else if (message == Message.RESYNC) {
+                emitter.send(SseEmitter.event().name(RESYNC).data("{}", MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .id(message.id())
+                        .name(message.notification().type())
+                        .data(message.notification(), MediaType.APPLICATION_JSON));
+                meterRegistry.counter("events.sent", "type", message.notification().type()).increment();
+            }
+        }
+    }
+}
@@ -1,16 +1,58 @@
 package com.example.smarthospitalsystem.service;
 
+import com.example.smarthospitalsystem.dto.AppointmentCursor;
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.dto.CursorPage;
+import com.example.smarthospitalsystem.dto.StatusChangeResult;
+import com.example.smarthospitalsystem.exception.InvalidRequestException;
+import com.example.smarthospitalsystem.exception.InvalidStatusTransitionException;
+import com.example.smarthospitalsystem.exception.ServiceNotReadyException;
+import com.example.smarthospitalsystem.exception.SlotUnavailableException;
 import com.example.smarthospitalsystem.model.*;
 import com.example.smarthospitalsystem.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Statement;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AppointmentService {
 
+    private static final Logger log = LoggerFactory.getLogger(AppointmentService.class);
+
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BULK_SIZE = 200;
+
+    // Open ends for the date-range filter (kept inside what MySQL DATETIME can store)
+    private static final LocalDateTime RANGE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime RANGE_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
@@ -20,13 +62,78 @@ public class AppointmentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Autowired
+    private DoctorSlotIndex slotIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    private volatile boolean slotIndexReady;
+
+    // Load every upcoming booked slot into memory once the app is up; bookings are refused until then
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSlotIndex() {
+        LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
+        int duplicates = 0;
+        for (AppointmentRepository.BookedSlot slot : appointmentRepository.findBookedSlotsFrom(startOfToday, Appointment.Status.REJECTED)) {
+            if (!slotIndex.tryReserve(slot.getDoctorId(), slot.getAppointmentTime())) {
+                duplicates++;
+            }
+        }
+        slotIndex.evictBefore(startOfToday.toLocalDate());
+        if (duplicates > 0) {
+            meterRegistry.counter("booking.duplicates").increment(duplicates);
+            log.warn("{} upcoming appointments share a slot with another booking of the same doctor", duplicates);
+        }
+        slotIndexReady = true;
+    }
+
+    // Days that are over drop out of the slot index at the same daily roll-over as DoctorAgenda
+    @Scheduled(cron = "${app.agenda.rollover-cron:0 0 0 * * *}")
+    public void evictPastSlots() {
+        slotIndex.evictBefore(LocalDate.now());
+    }
+
     // Logic to book an appointment
-    public Appointment bookAppointment(String patientUsername, Long doctorId, LocalDateTime time) {
-        User patient = userRepository.findByUsername(patientUsername)
+    @Transactional
+    public Appointment bookAppointment(Long patientId, Long doctorId, LocalDateTime time) {
+        if (doctorId == null || time == null) {
+            throw new InvalidRequestException("Doctor and appointment time are required");
+        }
+        if (time.isBefore(LocalDateTime.now())) {
+            throw new InvalidRequestException("Appointment time must be in the future");
+        }
+        if (!slotIndexReady) {
+            throw new ServiceNotReadyException("Bookings open once the slot index is loaded, try again shortly");
+        }
+        // Claim the slot in memory first, so a double booking seen by this node is turned away before any DB work
+        if (!slotIndex.tryReserve(doctorId, time)) {
+            throw slotTaken(time);
+        }
+        // Nothing was stored, give the slot back
+        afterRollback(() -> slotIndex.release(doctorId, time));
+
+        User patient = userRepository.findById(patientId)
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
-        Doctor doctor = doctorRepository.findById(doctorId)
+        // The in-memory index only knows this node's bookings: lock the doctor row and check the slot in the
+        // database as well, so bookings from every node for this doctor are serialised and see each other
+        Doctor doctor = doctorRepository.findByIdForBooking(doctorId)
                 .orElseThrow(() -> new RuntimeException("Doctor not found"));
+        LocalDateTime slotStart = slotIndex.slotStart(time);
+        if (appointmentRepository.countBookedBetween(doctorId, slotStart, slotStart.plusMinutes(slotIndex.getSlotMinutes()),
+                Appointment.Status.REJECTED) > 0) {
+            throw slotTaken(time);
+        }
 
         Appointment appointment = new Appointment();
         appointment.setPatient(patient);
@@ -34,26 +141,57 @@ public class AppointmentService {
         appointment.setAppointmentTime(time);
         appointment.setStatus(Appointment.Status.PENDING); // Default status
 
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(AppointmentSummary.of(saved), null, true));
+        return saved;
+    }
+
+    private SlotUnavailableException slotTaken(LocalDateTime time) {
+        meterRegistry.counter("booking.conflicts").increment();
+        return new SlotUnavailableException("Doctor already has an appointment at " + time);
     }
 
     // Get appointments for the logged-in patient
-    public List<Appointment> getPatientAppointments(String username) {
-        User patient = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return appointmentRepository.findByPatientId(patient.getId());
+    @Transactional(readOnly = true)
+    public List<Appointment> getPatientAppointments(Long patientId) {
+        return appointmentRepository.findByPatientId(patientId);
     }
 
     // Get appointments for a doctor (so they can approve/reject)
-    public List<Appointment> getDoctorAppointments(String username) {
-        User doctorUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    @Transactional(readOnly = true)
+    public List<Appointment> getDoctorAppointments(Long doctorId) {
+        return appointmentRepository.findByDoctorId(doctorId);
+    }
+
+    // One page of the patient's appointments as flat rows, oldest first
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentSummary> getPatientAppointmentPage(Long patientId, LocalDateTime from, LocalDateTime to,
+                                                                   Collection<Appointment.Status> statuses, String cursor, int size) {
+        return keysetPage(from, to, statuses, cursor, size, (st, afterTime, afterId, before, limit) ->
+                appointmentRepository.findPatientPage(patientId, st, afterTime, afterId, before, limit));
+    }
 
-        // Find the doctor profile linked to this user
-        Doctor doctor = doctorRepository.findByUserId(doctorUser.getId()) // We need to ensure this method exists in DoctorRepo
-                .orElseThrow(() -> new RuntimeException("Doctor profile not found"));
+    // One page of the doctor's appointments as flat rows, oldest first
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentSummary> getDoctorAppointmentPage(Long doctorId, LocalDateTime from, LocalDateTime to,
+                                                                  Collection<Appointment.Status> statuses, String cursor, int size) {
+        return keysetPage(from, to, statuses, cursor, size, (st, afterTime, afterId, before, limit) ->
+                appointmentRepository.findDoctorPage(doctorId, st, afterTime, afterId, before, limit));
+    }
 
-        return appointmentRepository.findByDoctorId(doctor.getId());
+    // Same page contract over the archive (closed appointments moved out by AppointmentArchiver)
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentSummary> getPatientArchivePage(Long patientId, LocalDateTime from, LocalDateTime to,
+                                                               Collection<Appointment.Status> statuses, String cursor, int size) {
+        return keysetPage(from, to, statuses, cursor, size, (st, afterTime, afterId, before, limit) ->
+                archivedAppointmentRepository.findPatientPage(patientId, st, afterTime, afterId, before, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentSummary> getDoctorArchivePage(Long doctorId, LocalDateTime from, LocalDateTime to,
+                                                              Collection<Appointment.Status> statuses, String cursor, int size) {
+        return keysetPage(from, to, statuses, cursor, size, (st, afterTime, afterId, before, limit) ->
+                archivedAppointmentRepository.findDoctorPage(doctorId, st, afterTime, afterId, before, limit));
     }
 
     // Helper to find appointment by ID
@@ -62,8 +200,192 @@ public class AppointmentService {
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
     }
 
+    // Change the status of an appointment, freeing the doctor's slot when it gets rejected.
+    // One read-write transaction, so the appointment is read from the primary, never from a lagging replica.
+    // A concurrent change in between fails the flush on the version check (409) instead of being overwritten.
+    @Transactional
+    public Appointment updateStatus(Long id, Appointment.Status status) {
+        Appointment appointment = getAppointmentById(id);
+        Appointment.Status previous = appointment.getStatus();
+        if (previous == status) {
+            return appointment; // a repeated request: nothing to change, nothing to announce
+        }
+        if (previous != null && !previous.canMoveTo(status)) {
+            throw new InvalidStatusTransitionException("Appointment " + id + " cannot go from " + previous + " to " + status);
+        }
+        appointment.setStatus(status);
+        // Flushed now so a version conflict fails here; listeners hear about it once the transaction commits
+        Appointment saved = appointmentRepository.saveAndFlush(appointment);
+        recordTransition(previous, status, saved.getDoctor().getId(), saved.getAppointmentTime());
+        eventPublisher.publishEvent(new AppointmentChangedEvent(AppointmentSummary.of(saved), previous, false));
+        return saved;
+    }
+
+    // Same, for a doctor acting on one appointment: only their own appointments can be changed
+    @Transactional
+    public Appointment updateStatus(Long doctorId, Long id, Appointment.Status status) {
+        Appointment appointment = getAppointmentById(id);
+        if (!appointment.getDoctor().getId().equals(doctorId)) {
+            throw new AccessDeniedException("Appointment " + id + " belongs to another doctor");
+        }
+        return updateStatus(id, status);
+    }
+
+    // Applies one status to many of a doctor's appointments in one transaction, with one batched UPDATE.
+    // 'expectedVersions' maps each id to the version the client last saw, or to null to take the current one;
+    // either way a row changed by someone else after it was read here is reported as CONFLICT, not overwritten.
+    // Returns one result per id, in request order.
+    @Transactional
+    public List<StatusChangeResult> bulkUpdateStatus(Long doctorId, Appointment.Status status, Map<Long, Long> expectedVersions) {
+        if (expectedVersions.size() > MAX_BULK_SIZE) {
+            throw new InvalidRequestException("At most " + MAX_BULK_SIZE + " appointments per request");
+        }
+        // 1. Current status and version of every requested appointment, in one query
+        Map<Long, AppointmentRepository.StatusRow> current = appointmentRepository.findStatusRows(expectedVersions.keySet())
+                .stream()
+                .filter(row -> row.getDoctorId().equals(doctorId))
+                .collect(Collectors.toMap(AppointmentRepository.StatusRow::getId, Function.identity()));
+
+        Map<Long, StatusChangeResult> results = new LinkedHashMap<>();
+        List<AppointmentRepository.StatusRow> changes = new ArrayList<>();
+        for (Map.Entry<Long, Long> requested : expectedVersions.entrySet()) {
+            Long id = requested.getKey();
+            AppointmentRepository.StatusRow row = current.get(id);
+            if (row == null) {
+                results.put(id, new StatusChangeResult(id, StatusChangeResult.Outcome.NOT_FOUND, null, null));
+            } else if (requested.getValue() != null && requested.getValue() != row.getVersion()) {
+                results.put(id, result(row, StatusChangeResult.Outcome.CONFLICT));
+            } else if (row.getStatus() == status) {
+                results.put(id, result(row, StatusChangeResult.Outcome.UNCHANGED));
+            } else if (row.getStatus() != null && !row.getStatus().canMoveTo(status)) {
+                results.put(id, result(row, StatusChangeResult.Outcome.INVALID_TRANSITION));
+            } else {
+                results.put(id, null); // keeps the request order
+                changes.add(row);
+            }
+        }
+        if (changes.isEmpty()) {
+            return new ArrayList<>(results.values());
+        }
+
+        // 2. One batch of conditional UPDATEs, in id order so concurrent bulk changes lock rows in the same order
+        changes.sort(Comparator.comparing(AppointmentRepository.StatusRow::getId));
+        SqlParameterSource[] batch = changes.stream()
+                .map(row -> new MapSqlParameterSource("id", row.getId())
+                        .addValue("status", status.name())
+                        .addValue("version", row.getVersion()))
+                .toArray(SqlParameterSource[]::new);
+        int[] counts = jdbc.batchUpdate("UPDATE appointments SET status = :status, version = version + 1 " +
+                "WHERE id = :id AND version = :version", batch);
+
+        // 3. Results from the rows as they are now; a rewritten batch may not report per-row counts
+        List<Long> changedIds = changes.stream().map(AppointmentRepository.StatusRow::getId).toList();
+        Map<Long, AppointmentRepository.StatusRow> after = appointmentRepository.findStatusRows(changedIds).stream()
+                .collect(Collectors.toMap(AppointmentRepository.StatusRow::getId, Function.identity()));
+        List<AppointmentRepository.StatusRow> updated = new ArrayList<>();
+        for (int i = 0; i < changes.size(); i++) {
+            AppointmentRepository.StatusRow before = changes.get(i);
+            AppointmentRepository.StatusRow now = after.get(before.getId());
+            boolean applied = counts[i] > 0 || (counts[i] == Statement.SUCCESS_NO_INFO && now != null
+                    && now.getStatus() == status && now.getVersion() == before.getVersion() + 1);
+            if (now == null) {
+                results.put(before.getId(), new StatusChangeResult(before.getId(), StatusChangeResult.Outcome.NOT_FOUND, null, null));
+            } else {
+                results.put(before.getId(), result(now, applied ? StatusChangeResult.Outcome.UPDATED : StatusChangeResult.Outcome.CONFLICT));
+            }
+            if (applied) {
+                updated.add(before);
+                recordTransition(before.getStatus(), status, before.getDoctorId(), before.getAppointmentTime());
+            }
+        }
+
+        // 4. Announce the changes like single updates do (agenda, live updates, read-your-writes)
+        if (!updated.isEmpty()) {
+            Map<Long, Appointment.Status> previous = updated.stream().collect(Collectors.toMap(
+                    AppointmentRepository.StatusRow::getId, AppointmentRepository.StatusRow::getStatus));
+            for (AppointmentSummary summary : appointmentRepository.findSummariesByIdIn(previous.keySet())) {
+                eventPublisher.publishEvent(new AppointmentChangedEvent(summary, previous.get(summary.id()), false));
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
     // Helper to save status updates
     public Appointment save(Appointment appointment) {
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(AppointmentSummary.of(saved), null, false));
+        return saved;
+    }
+
+    // Counts the transition and frees the doctor's slot when the appointment gets rejected.
+    // The slot is freed once the rejection is committed: a rolled-back rejection still holds it.
+    private void recordTransition(Appointment.Status previous, Appointment.Status status, Long doctorId, LocalDateTime time) {
+        meterRegistry.counter("appointment.status.transitions",
+                "from", String.valueOf(previous), "to", status.name()).increment();
+        if (status == Appointment.Status.REJECTED && previous != Appointment.Status.REJECTED) {
+            afterCommit(() -> slotIndex.release(doctorId, time));
+        }
+    }
+
+    // Runs 'action' after the current transaction commits, or right away outside of one
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Runs 'action' once the current transaction has rolled back
+    private static void afterRollback(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static StatusChangeResult result(AppointmentRepository.StatusRow row, StatusChangeResult.Outcome outcome) {
+        return new StatusChangeResult(row.getId(), outcome, row.getStatus(), row.getVersion());
+    }
+
+    private CursorPage<AppointmentSummary> keysetPage(LocalDateTime from, LocalDateTime to, Collection<Appointment.Status> statuses,
+                                                      String cursor, int size, PageQuery query) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Collection<Appointment.Status> statusFilter = statuses == null || statuses.isEmpty()
+                ? EnumSet.allOf(Appointment.Status.class) : statuses;
+
+        // Start after the cursor, or at 'from' (afterId 0 keeps rows exactly at 'from')
+        LocalDateTime afterTime = from != null ? from : RANGE_START;
+        Long afterId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            AppointmentCursor position = AppointmentCursor.decode(cursor);
+            afterTime = position.appointmentTime();
+            afterId = position.id();
+        }
+
+        // Ask for one extra row to know whether there is a next page
+        List<AppointmentSummary> rows = query.fetch(statusFilter, afterTime, afterId, to != null ? to : RANGE_END,
+                Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<AppointmentSummary> items = new ArrayList<>(rows.subList(0, pageSize));
+        AppointmentSummary last = items.get(items.size() - 1);
+        return new CursorPage<>(items, new AppointmentCursor(last.appointmentTime(), last.id()).encode());
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        List<AppointmentSummary> fetch(Collection<Appointment.Status> statuses, LocalDateTime afterTime, Long afterId,
+                                       LocalDateTime before, Limit limit);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,435 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.dto.AuditEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only history of appointment, prescription and admin changes.
+// Request threads only put a record on a bounded queue (never wait: when it is full the record is dropped and
+// counted). One writer thread drains the queue and group-commits: every record waiting is written with one
+// FileChannel write and made durable with one force(), so the fsync cost is shared by everything in the batch.
+// Files are segments named after their first sequence number (audit-<seq>.log), rotated at 'segment-size':
+//   record = [int body length][int CRC32C of body][body]
+//   body   = [long sequence][long epoch millis][type][actor][long subject id, -1 = none][details]  (strings: int length + UTF-8)
+// A torn record at the end of the last segment (crash mid-write) is cut off on startup.
+@Component
+public class AuditLog {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_DETAILS = 2000;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final int maxBatch;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong handled = new AtomicLong(); // written, failed or dropped
+    private final Counter appended;
+    private final Counter dropped;
+    private final Counter failed;
+    private final DistributionSummary batchSize;
+
+    // Writer thread only
+    private FileChannel channel;
+    private long nextSequence;
+    private long lastMillis;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+
+    // Readers never go past what the writer has finished writing
+    private volatile long committedSequence;
+
+    public AuditLog(@Value("${app.audit.dir:./data/audit}") Path directory,
+                    @Value("${app.audit.segment-size:64MB}") DataSize segmentSize,
+                    @Value("${app.audit.fsync:true}") boolean fsync,
+                    @Value("${app.audit.queue-capacity:65536}") int queueCapacity,
+                    @Value("${app.audit.max-batch:4096}") int maxBatch,
+                    MeterRegistry meterRegistry) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentSize.toBytes();
+        this.fsync = fsync;
+        this.maxBatch = maxBatch;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.appended = Counter.builder("audit.records").tag("outcome", "written")
+                .description("Audit records written").register(meterRegistry);
+        this.dropped = Counter.builder("audit.records").tag("outcome", "dropped")
+                .description("Audit records dropped because the queue was full").register(meterRegistry);
+        this.failed = Counter.builder("audit.records").tag("outcome", "failed")
+                .description("Audit records lost to a write error").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("audit.batch.size")
+                .description("Records per group commit").register(meterRegistry);
+        Gauge.builder("audit.queue", queue, BlockingQueue::size)
+                .description("Audit records waiting for the writer").register(meterRegistry);
+
+        Files.createDirectories(directory);
+        openLastSegment();
+        this.writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::writeLoop);
+    }
+
+    // Queues a record; returns at once. 'subjectId' may be null.
+    public void record(String type, Long subjectId, String details) {
+        enqueued.incrementAndGet();
+        Pending pending = new Pending(type, currentActor(), subjectId,
+                details == null ? "" : details.length() > MAX_DETAILS ? details.substring(0, MAX_DETAILS) : details);
+        if (!running || !queue.offer(pending)) {
+            dropped.increment();
+            handled.incrementAndGet();
+        }
+    }
+
+    // After commit only: a rolled-back change never reaches the log (outside a transaction it runs at once)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentSummary appointment = event.appointment();
+        String details = "status=" + appointment.status()
+                + (event.previousStatus() != null ? " previous=" + event.previousStatus() : "")
+                + " patient=" + appointment.patientId() + " doctor=" + appointment.doctorId()
+                + " time=" + appointment.appointmentTime();
+        record(event.created() ? "appointment.created" : "appointment.status", appointment.id(), details);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrescriptionCreated(PrescriptionCreatedEvent event) {
+        record("prescription.created", event.prescriptionId(), "appointment=" + event.appointment().id()
+                + " patient=" + event.appointment().patientId() + " doctor=" + event.appointment().doctorId());
+    }
+
+    // Every record from 'fromSequence' on, oldest first (to rebuild a read model, or to tail the log)
+    public void replay(long fromSequence, Consumer<AuditEntry> consumer) throws IOException {
+        List<Segment> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && segments.get(i + 1).firstSequence() <= fromSequence) {
+                continue; // ends before 'fromSequence'
+            }
+            if (!read(segments.get(i).path(), committedSequence, entry -> {
+                if (entry.sequence() >= fromSequence) {
+                    consumer.accept(entry);
+                }
+                return true;
+            })) {
+                return;
+            }
+        }
+    }
+
+    // Records written in [from, to), oldest first, at most 'limit'. Whole segments before 'from' are skipped
+    // by looking at their first record only.
+    public List<AuditEntry> scan(Instant from, Instant to, int limit) throws IOException {
+        List<AuditEntry> found = new ArrayList<>();
+        List<Segment> segments = segments();
+        for (int i = 0; i < segments.size() && found.size() < limit; i++) {
+            if (i + 1 < segments.size()) {
+                Instant nextStart = firstTime(segments.get(i + 1).path());
+                if (nextStart != null && !nextStart.isAfter(from)) {
+                    continue;
+                }
+            }
+            boolean more = read(segments.get(i).path(), committedSequence, entry -> {
+                if (!entry.time().isBefore(to)) {
+                    return false; // times never decrease, nothing later can match
+                }
+                if (!entry.time().isBefore(from)) {
+                    found.add(entry);
+                }
+                return found.size() < limit;
+            });
+            if (!more) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    // Waits until everything queued so far is written (or dropped); false on timeout
+    public boolean flush(Duration timeout) throws InterruptedException {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (handled.get() < target) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                try {
+                    write(batch);
+                    appended.increment(batch.size());
+                } catch (IOException e) {
+                    failed.increment(batch.size());
+                    log.error("Could not write {} audit records: {}", batch.size(), e.getMessage());
+                } finally {
+                    handled.addAndGet(batch.size());
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close the audit segment: {}", e.getMessage());
+            }
+        }
+    }
+
+    // One group commit: encode the whole batch, rotate if it does not fit, one write, one force
+    private void write(List<Pending> batch) throws IOException {
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        buffer.clear();
+        long sequence = nextSequence;
+        for (Pending pending : batch) {
+            encode(sequence++, now, pending);
+        }
+        buffer.flip();
+
+        if (channel.size() > 0 && channel.size() + buffer.remaining() > segmentBytes) {
+            rotate();
+        }
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            // Do not leave half a batch in the middle of the segment: readers would stop there
+            channel.truncate(start);
+            channel.position(start);
+            throw e;
+        }
+        nextSequence = sequence;
+        lastMillis = now;
+        committedSequence = sequence - 1;
+        batchSize.record(batch.size());
+    }
+
+    private void encode(long sequence, long millis, Pending pending) {
+        byte[] type = pending.type().getBytes(StandardCharsets.UTF_8);
+        byte[] actor = pending.actor().getBytes(StandardCharsets.UTF_8);
+        byte[] details = pending.details().getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 8 + 8 + 4 + type.length + 4 + actor.length + 8 + 4 + details.length;
+        ensureCapacity(HEADER_BYTES + bodyLength);
+
+        int start = buffer.position();
+        buffer.putInt(bodyLength).putInt(0); // CRC filled in below
+        buffer.putLong(sequence).putLong(millis)
+                .putInt(type.length).put(type)
+                .putInt(actor.length).put(actor)
+                .putLong(pending.subjectId() == null ? -1 : pending.subjectId())
+                .putInt(details.length).put(details);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(start + HEADER_BYTES).limit(start + HEADER_BYTES + bodyLength));
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        channel = open(directory.resolve(segmentName(nextSequence)));
+    }
+
+    // Startup: continue after the last intact record of the newest segment
+    private void openLastSegment() throws IOException {
+        List<Segment> segments = segments();
+        if (segments.isEmpty()) {
+            nextSequence = 1;
+            channel = open(directory.resolve(segmentName(1)));
+            return;
+        }
+        Segment last = segments.get(segments.size() - 1);
+        long[] end = {0, last.firstSequence() - 1, 0}; // valid bytes, last sequence, last millis
+        read(last.path(), Long.MAX_VALUE, entry -> {
+            end[0] += HEADER_BYTES + bodyLength(entry);
+            end[1] = entry.sequence();
+            end[2] = entry.time().toEpochMilli();
+            return true;
+        });
+        channel = open(last.path());
+        if (channel.size() > end[0]) {
+            log.warn("Cutting {} bytes of incomplete audit records off {}", channel.size() - end[0], last.path());
+            channel.truncate(end[0]);
+        }
+        channel.position(end[0]);
+        nextSequence = end[1] + 1;
+        lastMillis = end[2];
+        committedSequence = end[1];
+    }
+
+    // Feeds intact records to 'consumer' until it returns false or the data ends; false if it was stopped
+    private boolean read(Path segment, long upToSequence, RecordVisitor consumer) throws IOException {
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(Channels.newInputStream(in), 64 * 1024))) {
+            while (true) {
+                int bodyLength;
+                int crc;
+                byte[] body;
+                try {
+                    bodyLength = data.readInt();
+                    crc = data.readInt();
+                    if (bodyLength <= 0 || bodyLength > MAX_BODY_BYTES) {
+                        return true; // garbage: a torn tail
+                    }
+                    body = new byte[bodyLength];
+                    data.readFully(body);
+                } catch (EOFException e) {
+                    return true;
+                }
+                CRC32C check = new CRC32C();
+                check.update(body);
+                if ((int) check.getValue() != crc) {
+                    return true;
+                }
+                AuditEntry entry = decode(ByteBuffer.wrap(body));
+                if (entry.sequence() > upToSequence) {
+                    return false; // being written right now
+                }
+                if (!consumer.visit(entry)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private Instant firstTime(Path segment) throws IOException {
+        Instant[] first = {null};
+        read(segment, committedSequence, entry -> {
+            first[0] = entry.time();
+            return false;
+        });
+        return first[0];
+    }
+
+    private static AuditEntry decode(ByteBuffer body) {
+        long sequence = body.getLong();
+        Instant time = Instant.ofEpochMilli(body.getLong());
+        String type = string(body);
+        String actor = string(body);
+        long subjectId = body.getLong();
+        String details = string(body);
+        return new AuditEntry(sequence, time, type, actor, subjectId < 0 ? null : subjectId, details);
+    }
+
+    private static String string(ByteBuffer body) {
+        byte[] bytes = new byte[body.getInt()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int bodyLength(AuditEntry entry) {
+        return 8 + 8 + 4 + utf8Length(entry.type()) + 4 + utf8Length(entry.actor()) + 8 + 4 + utf8Length(entry.details());
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private List<Segment> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIX) && p.getFileName().toString().endsWith(SUFFIX))
+                    .map(p -> {
+                        String name = p.getFileName().toString();
+                        return new Segment(p, Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                    })
+                    .sorted((a, b) -> Long.compare(a.firstSequence(), b.firstSequence()))
+                    .toList();
+        }
+    }
+
+    private static String segmentName(long firstSequence) {
+        return PREFIX + String.format("%020d", firstSequence) + SUFFIX;
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : "system";
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        boolean visit(AuditEntry entry);
+    }
+
+    private record Pending(String type, String actor, Long subjectId, String details) {
+    }
+
+    private record Segment(Path path, long firstSequence) {
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.config.BoundedPasswordEncoder;
+import com.example.smarthospitalsystem.dto.ImportReport;
+import com.example.smarthospitalsystem.exception.InvalidRequestException;
+import com.example.smarthospitalsystem.model.Department;
+import com.example.smarthospitalsystem.model.User;
+import com.example.smarthospitalsystem.repository.DepartmentRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Bulk onboarding of patients, doctors and departments.
+// Rows are streamed in chunks; per chunk there is one uniqueness query, parallel BCrypt hashing
+// and one JDBC batch insert per table inside a single transaction. Bad rows are reported, not fatal.
+@Service
+public class BulkImportService {
+
+    public enum Kind { PATIENTS, DOCTORS, DEPARTMENTS }
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    // Same rule as AdminController: 8+ chars, 1 Upper, 1 Number, 1 Special
+    private static final String PASS_REGEX = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=!]).{8,}$";
+
+    @Autowired private NamedParameterJdbcTemplate jdbc;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private BoundedPasswordEncoder passwordEncoder;
+    @Autowired private Validator validator;
+    @Autowired private EntityCacheService entityCacheService;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public static Kind parseKind(String kind) {
+        for (Kind k : Kind.values()) {
+            if (k.name().equalsIgnoreCase(kind)) {
+                return k;
+            }
+        }
+        throw new InvalidRequestException("Unknown import kind '" + kind + "' (use patients, doctors or departments)");
+    }
+
+    public ImportReport importRows(Kind kind, ImportRowReader reader) throws IOException {
+        long started = System.nanoTime();
+        Report report = new Report();
+        Set<String> seenKeys = new HashSet<>();
+        // Departments are few; doctors reference them by name (or id)
+        Map<String, Long> departments = loadDepartments();
+
+        List<ImportRowReader.Row> chunk = new ArrayList<>(chunkSize);
+        ImportRowReader.Row row;
+        while ((row = reader.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(kind, chunk, departments, seenKeys, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(kind, chunk, departments, seenKeys, report);
+        }
+
+        if (report.imported > 0) {
+            // The inserts bypassed Hibernate, so its cached query results may be stale
+            entityCacheService.evictQueryResults();
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Bulk import of {}: {} rows, {} imported, {} failed in {} ms",
+                kind, report.rows, report.imported, report.failed, elapsedMillis);
+        return new ImportReport(kind.name().toLowerCase(Locale.ROOT), report.rows, report.imported, report.failed,
+                report.errors, report.errorsTruncated, elapsedMillis);
+    }
+
+    private void importChunk(Kind kind, List<ImportRowReader.Row> rows, Map<String, Long> departments,
+                             Set<String> seenKeys, Report report) {
+        report.rows += rows.size();
+        List<ImportRowReader.Row> parsed = new ArrayList<>(rows.size());
+        for (ImportRowReader.Row row : rows) {
+            if (row.error() != null) {
+                report.fail(row, row.error());
+            } else {
+                parsed.add(row);
+            }
+        }
+        if (kind == Kind.DEPARTMENTS) {
+            importDepartments(parsed, departments, report);
+        } else {
+            importAccounts(kind, parsed, departments, seenKeys, report);
+        }
+    }
+
+    private void importAccounts(Kind kind, List<ImportRowReader.Row> rows, Map<String, Long> departments,
+                                Set<String> seenKeys, Report report) {
+        // 1. Per-row validation (same rules as the single-account endpoints)
+        List<Account> accounts = new ArrayList<>(rows.size());
+        for (ImportRowReader.Row row : rows) {
+            String error = validateAccount(kind, row, departments);
+            if (error != null) {
+                report.fail(row, error);
+            } else if (!seenKeys.add(row.get("username").toLowerCase(Locale.ROOT))) {
+                report.fail(row, "Duplicate username in this file");
+            } else {
+                accounts.add(new Account(row));
+            }
+        }
+        if (accounts.isEmpty()) {
+            return;
+        }
+
+        // 2. One query for the whole chunk instead of findByUsername per row
+        Set<String> taken = new HashSet<>();
+        jdbc.queryForList("SELECT username FROM users WHERE username IN (:usernames)",
+                        Map.of("usernames", accounts.stream().map(a -> a.row.get("username")).toList()), String.class)
+                .forEach(u -> taken.add(u.toLowerCase(Locale.ROOT)));
+        accounts.removeIf(a -> {
+            if (taken.contains(a.row.get("username").toLowerCase(Locale.ROOT))) {
+                report.fail(a.row, "Username is already taken!");
+                return true;
+            }
+            return false;
+        });
+        if (accounts.isEmpty()) {
+            return;
+        }
+
+        // 3. Hash in parallel on the shared hashing pool
+        List<String> hashes = passwordEncoder.encodeAll(accounts.stream().map(a -> a.row.get("password")).toList());
+        for (int i = 0; i < accounts.size(); i++) {
+            accounts.get(i).passwordHash = hashes.get(i);
+        }
+
+        // 4. Batch insert users (and their doctor profiles) in one transaction
+        User.Role role = kind == Kind.DOCTORS ? User.Role.DOCTOR : User.Role.PATIENT;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbc.batchUpdate("INSERT INTO users (username, password, full_name, role) VALUES (:username, :password, :fullName, :role)",
+                        accounts.stream().map(a -> new MapSqlParameterSource()
+                                .addValue("username", a.row.get("username"))
+                                .addValue("password", a.passwordHash)
+                                .addValue("fullName", a.row.get("fullName"))
+                                .addValue("role", role.name())).toArray(MapSqlParameterSource[]::new));
+                if (kind == Kind.DOCTORS) {
+                    insertDoctorProfiles(accounts, departments);
+                }
+            });
+            report.imported += accounts.size();
+        } catch (DataAccessException e) {
+            // e.g. a username created concurrently by another admin; the whole chunk was rolled back
+            log.warn("Bulk import chunk rejected by the database: {}", e.getMostSpecificCause().getMessage());
+            accounts.forEach(a -> report.fail(a.row, "Rejected by the database, chunk rolled back: "
+                    + e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private void insertDoctorProfiles(List<Account> accounts, Map<String, Long> departments) {
+        // IDENTITY keys: read back the ids of the users just inserted (one query per chunk)
+        Map<String, Long> userIds = new HashMap<>();
+        jdbc.query("SELECT id, username FROM users WHERE username IN (:usernames)",
+                Map.of("usernames", accounts.stream().map(a -> a.row.get("username")).toList()),
+                rs -> {
+                    userIds.put(rs.getString("username").toLowerCase(Locale.ROOT), rs.getLong("id"));
+                });
+        jdbc.batchUpdate("INSERT INTO doctors (specialization, user_id, department_id, is_available) " +
+                        "VALUES (:specialization, :userId, :departmentId, TRUE)",
+                accounts.stream().map(a -> new MapSqlParameterSource()
+                        .addValue("specialization", a.row.get("specialization"))
+                        .addValue("userId", userIds.get(a.row.get("username").toLowerCase(Locale.ROOT)))
+                        .addValue("departmentId", resolveDepartment(a.row, departments))).toArray(MapSqlParameterSource[]::new));
+    }
+
+    private void importDepartments(List<ImportRowReader.Row> rows, Map<String, Long> departments, Report report) {
+        List<ImportRowReader.Row> accepted = new ArrayList<>(rows.size());
+        for (ImportRowReader.Row row : rows) {
+            String name = row.get("name");
+            if (name == null) {
+                report.fail(row, "Missing column 'name'");
+            } else if (departments.containsKey(name.toLowerCase(Locale.ROOT))) {
+                report.fail(row, "Department already exists");
+            } else {
+                departments.put(name.toLowerCase(Locale.ROOT), null);
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbc.batchUpdate("INSERT INTO departments (name, description) VALUES (:name, :description)",
+                            accepted.stream().map(r -> new MapSqlParameterSource()
+                                    .addValue("name", r.get("name"))
+                                    .addValue("description", r.get("description"))).toArray(MapSqlParameterSource[]::new)));
+            report.imported += accepted.size();
+        } catch (DataAccessException e) {
+            log.warn("Bulk import chunk rejected by the database: {}", e.getMostSpecificCause().getMessage());
+            accepted.forEach(r -> report.fail(r, "Rejected by the database, chunk rolled back: "
+                    + e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private String validateAccount(Kind kind, ImportRowReader.Row row, Map<String, Long> departments) {
+        for (String column : kind == Kind.DOCTORS
+                ? List.of("username", "password", "fullName", "specialization")
+                : List.of("username", "password", "fullName")) {
+            if (row.get(column) == null) {
+                return "Missing column '" + column + "'";
+            }
+        }
+
+        // Bean validation on the same User constraints the REST endpoints enforce
+        User user = new User();
+        user.setUsername(row.get("username"));
+        user.setFullName(row.get("fullName"));
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        if (!row.get("password").matches(PASS_REGEX)) {
+            return "Weak Password: Needs 8+ chars, 1 Upper, 1 Number, 1 Special (!@#$%).";
+        }
+        if (kind == Kind.DOCTORS && resolveDepartment(row, departments) == null) {
+            return "Department not found";
+        }
+        return null;
+    }
+
+    // Doctor rows name their department with 'department' (name) or 'departmentId'
+    private static Long resolveDepartment(ImportRowReader.Row row, Map<String, Long> departments) {
+        String name = row.get("department");
+        if (name != null) {
+            return departments.get(name.toLowerCase(Locale.ROOT));
+        }
+        String id = row.get("departmentId");
+        if (id == null) {
+            return null;
+        }
+        try {
+            Long departmentId = Long.valueOf(id);
+            return departments.containsValue(departmentId) ? departmentId : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Map<String, Long> loadDepartments() {
+        Map<String, Long> departments = new HashMap<>();
+        for (Department d : departmentRepository.findAll()) {
+            departments.putIfAbsent(d.getName().toLowerCase(Locale.ROOT), d.getId());
+        }
+        return departments;
+    }
+
+    private static final class Account {
+        private final ImportRowReader.Row row;
+        private String passwordHash;
+
+        private Account(ImportRowReader.Row row) {
+            this.row = row;
+        }
+    }
+
+    private static final class Report {
+        private long rows;
+        private long imported;
+        private long failed;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+
+        private void fail(ImportRowReader.Row row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(row.line(), message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
@@ -1,29 +1,55 @@
 package com.example.smarthospitalsystem.service;
 
+import com.example.smarthospitalsystem.model.Doctor;
 import com.example.smarthospitalsystem.model.User;
+import com.example.smarthospitalsystem.repository.DoctorRepository;
 import com.example.smarthospitalsystem.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    // Read-write on purpose: with replicas enabled, login must see a just-registered account or changed password
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        // Convert our User entity to Spring Security's UserDetails
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getUsername())
-                .password(user.getPassword())
-                .roles(user.getRole().name())
-                .build();
+        // Resolve the doctor profile once here instead of on every doctor request
+        Long doctorId = null;
+        if (user.getRole() == User.Role.DOCTOR) {
+            doctorId = doctorRepository.findByUserId(user.getId()).map(Doctor::getId).orElse(null);
+        }
+
+        // Convert our User entity to Spring Security's UserDetails (carrying our ids)
+        return new HospitalUserDetails(user.getId(), user.getUsername(), user.getPassword(), user.getRole(), doctorId,
+                SessionTokenService.fingerprint(user.getPassword()));
+    }
+
+    // Called by Spring Security after a successful login when the stored hash uses an older BCrypt cost
+    // Goes through the entity, so only this user's entry in the "users" cache region is replaced
+    // (a bulk UPDATE query would evict the whole region)
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        HospitalUserDetails details = (HospitalUserDetails) user;
+        User account = userRepository.findById(details.getUserId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        account.setPassword(newPassword);
+        return new HospitalUserDetails(details.getUserId(), details.getUsername(), newPassword, details.getRole(), details.getDoctorId(),
+                SessionTokenService.fingerprint(newPassword));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.example.smarthospitalsystem.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version of the department/doctor directory, used as the ETag of /api/departments and /api/doctors/{deptId}.
+// Every admin change to departments or doctors bumps it; the random part changes on restart, so ETags
+// handed out before a restart never match again. The version lives in this JVM only (one app node).
+@Component
+public class DirectoryVersion {
+
+    private final String base = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong version = new AtomicLong();
+    // Last-Modified has second precision; start at boot time
+    private volatile long lastModified = secondsNow();
+
+    public void bump() {
+        version.incrementAndGet();
+        lastModified = secondsNow();
+    }
+
+    public String etag() {
+        return "\"dir-" + base + "-" + version.get() + "\"";
+    }
+
+    public long lastModified() {
+        return lastModified;
+    }
+
+    private static long secondsNow() {
+        return System.currentTimeMillis() / 1000 * 1000;
+    }
+}
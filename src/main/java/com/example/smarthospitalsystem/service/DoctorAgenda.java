@@ -0,0 +1,132 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Materialized read model of each doctor's agenda, from today until 'app.agenda.days-ahead' days out.
+// Every doctor maps to an immutable, time-ordered list that is replaced (copy-on-write) whenever one of
+// their appointments changes, so dashboard reads are a single map lookup and never hit the database.
+// Rebuilt from the DB at startup and just after midnight, when the window moves on by a day.
+@Component
+public class DoctorAgenda {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorAgenda.class);
+
+    private static final Comparator<AppointmentSummary> ORDER =
+            Comparator.comparing(AppointmentSummary::appointmentTime).thenComparing(AppointmentSummary::id);
+
+    private final AppointmentRepository appointmentRepository;
+    private final int daysAhead;
+
+    private final Map<Long, List<AppointmentSummary>> agendas = new ConcurrentHashMap<>();
+    // Updates share the read side; a rebuild takes the write side so no change slips in between query and swap
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile LocalDateTime windowStart = LocalDateTime.MIN;
+    private volatile LocalDateTime windowEnd = LocalDateTime.MIN;
+
+    public DoctorAgenda(AppointmentRepository appointmentRepository,
+                        @Value("${app.agenda.days-ahead:30}") int daysAhead) {
+        if (daysAhead < 1) {
+            throw new IllegalArgumentException("Agenda must cover at least today: " + daysAhead);
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.daysAhead = daysAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.agenda.rollover-cron:0 0 0 * * *}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        rebuildLock.writeLock().lock();
+        try {
+            load(today, appointmentRepository.findAgendaBetween(today.atStartOfDay(),
+                    today.plusDays(daysAhead).atStartOfDay()));
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        log.info("Doctor agenda rebuilt for {} doctors in {} ms", agendas.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Replaces the whole model with 'rows' (sorted by doctor, time, id as findAgendaBetween returns them)
+    void load(LocalDate today, List<AppointmentSummary> rows) {
+        Map<Long, List<AppointmentSummary>> fresh = new HashMap<>();
+        for (AppointmentSummary row : rows) {
+            fresh.computeIfAbsent(row.doctorId(), id -> new ArrayList<>()).add(row);
+        }
+        windowStart = today.atStartOfDay();
+        windowEnd = today.plusDays(daysAhead).atStartOfDay();
+        agendas.keySet().retainAll(fresh.keySet());
+        fresh.forEach((doctorId, list) -> agendas.put(doctorId, Collections.unmodifiableList(list)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        apply(event.appointment());
+    }
+
+    // Inserts, moves or replaces one appointment in its doctor's agenda
+    public void apply(AppointmentSummary appointment) {
+        rebuildLock.readLock().lock();
+        try {
+            boolean inWindow = !appointment.appointmentTime().isBefore(windowStart)
+                    && appointment.appointmentTime().isBefore(windowEnd);
+            agendas.compute(appointment.doctorId(), (doctorId, current) -> {
+                List<AppointmentSummary> next = new ArrayList<>(current == null ? List.of() : current);
+                next.removeIf(a -> a.id().equals(appointment.id()));
+                if (inWindow) {
+                    int at = Collections.binarySearch(next, appointment, ORDER);
+                    next.add(at < 0 ? -at - 1 : at, appointment);
+                }
+                return next.isEmpty() ? null : Collections.unmodifiableList(next);
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // The doctor's agenda from today on, oldest first (immutable snapshot)
+    public List<AppointmentSummary> getAgenda(Long doctorId) {
+        return agendas.getOrDefault(doctorId, List.of());
+    }
+
+    // Just one day of the doctor's agenda (empty outside the window)
+    public List<AppointmentSummary> getAgenda(Long doctorId, LocalDate day) {
+        List<AppointmentSummary> agenda = getAgenda(doctorId);
+        return agenda.subList(firstAtOrAfter(agenda, day.atStartOfDay()), firstAtOrAfter(agenda, day.plusDays(1).atStartOfDay()));
+    }
+
+    private static int firstAtOrAfter(List<AppointmentSummary> agenda, LocalDateTime time) {
+        int low = 0;
+        int high = agenda.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (agenda.get(mid).appointmentTime().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.smarthospitalsystem.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory view of which time slots each doctor already has booked.
+// One bitmap per doctor per day (1 bit = 1 slot), guarded by striped locks so
+// bookings for different doctors never wait on each other.
+@Component
+public class DoctorSlotIndex {
+
+    private static final int STRIPES = 64;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int slotMinutes;
+    private final int wordsPerDay;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    // doctorId -> (day -> bitmap). The inner maps are only touched while holding the doctor's stripe lock.
+    private final Map<Long, Map<LocalDate, long[]>> days = new ConcurrentHashMap<>();
+
+    public DoctorSlotIndex(@Value("${app.booking.slot-minutes:30}") int slotMinutes) {
+        if (slotMinutes <= 0 || MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalArgumentException("Slot length must divide a day evenly: " + slotMinutes);
+        }
+        this.slotMinutes = slotMinutes;
+        this.wordsPerDay = (MINUTES_PER_DAY / slotMinutes + 63) / 64;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Claims the slot containing 'time'. Returns false if the doctor already has it.
+    public boolean tryReserve(Long doctorId, LocalDateTime time) {
+        int slot = slotOf(time);
+        ReentrantLock lock = lockFor(doctorId);
+        lock.lock();
+        try {
+            long[] bitmap = days.computeIfAbsent(doctorId, id -> new HashMap<>())
+                    .computeIfAbsent(time.toLocalDate(), d -> new long[wordsPerDay]);
+            long mask = 1L << (slot & 63);
+            if ((bitmap[slot >>> 6] & mask) != 0) {
+                return false;
+            }
+            bitmap[slot >>> 6] |= mask;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Frees the slot again (failed insert, rejected appointment)
+    public void release(Long doctorId, LocalDateTime time) {
+        int slot = slotOf(time);
+        ReentrantLock lock = lockFor(doctorId);
+        lock.lock();
+        try {
+            Map<LocalDate, long[]> doctorDays = days.get(doctorId);
+            long[] bitmap = doctorDays == null ? null : doctorDays.get(time.toLocalDate());
+            if (bitmap != null) {
+                bitmap[slot >>> 6] &= ~(1L << (slot & 63));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isReserved(Long doctorId, LocalDateTime time) {
+        int slot = slotOf(time);
+        ReentrantLock lock = lockFor(doctorId);
+        lock.lock();
+        try {
+            Map<LocalDate, long[]> doctorDays = days.get(doctorId);
+            long[] bitmap = doctorDays == null ? null : doctorDays.get(time.toLocalDate());
+            return bitmap != null && (bitmap[slot >>> 6] & (1L << (slot & 63))) != 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops days that are over, so the index only grows with the booking horizon
+    public void evictBefore(LocalDate day) {
+        for (Map.Entry<Long, Map<LocalDate, long[]>> entry : days.entrySet()) {
+            ReentrantLock lock = lockFor(entry.getKey());
+            lock.lock();
+            try {
+                entry.getValue().keySet().removeIf(d -> d.isBefore(day));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Start of the slot containing 'time'
+    public LocalDateTime slotStart(LocalDateTime time) {
+        return time.toLocalDate().atStartOfDay().plusMinutes((long) slotOf(time) * slotMinutes);
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    private int slotOf(LocalDateTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / slotMinutes;
+    }
+
+    private ReentrantLock lockFor(Long doctorId) {
+        return locks[(Long.hashCode(doctorId) & 0x7fffffff) % STRIPES];
+    }
+}
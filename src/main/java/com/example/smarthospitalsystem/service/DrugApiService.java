@@ -1,86 +1,248 @@
 package com.example.smarthospitalsystem.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class DrugApiService {
 
+    private static final Logger log = LoggerFactory.getLogger(DrugApiService.class);
+    private static final int MAX_INFO_CHARS = 200;
+    // Names asked for per search; fewer back means that is every match
+    static final int SEARCH_LIMIT = 5;
+
+    // One thread-safe factory for every response: no per-call ObjectMapper, no JsonNode trees.
+    // Parse errors should not echo (possibly huge) response bodies into logs.
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamReadFeature.INCLUDE_SOURCE_IN_LOCATION)
+            .build();
+
     private final RestTemplate restTemplate;
+    private final FdaCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
 
-    public DrugApiService(RestTemplate restTemplate) {
+    // OpenFDA API URL (Free, no key required)
+    private final String labelUrl;
+
+    public DrugApiService(RestTemplate restTemplate, @Value("${app.fda.base-url:https://api.fda.gov}") String baseUrl,
+                          FdaCircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.labelUrl = baseUrl + "/drug/label.json";
     }
 
     public String getDrugInfo(String drugName) {
-        // OpenFDA API URL (Free, no key required)
-        String url = "https://api.fda.gov/drug/label.json";
+        return lookupDrugInfo(drugName).info();
+    }
 
+    public DrugLookup lookupDrugInfo(String drugName) {
         // Build URL: ?search=openfda.brand_name:"drugName"&limit=1
-        String finalUrl = UriComponentsBuilder.fromUriString(url)
+        URI uri = UriComponentsBuilder.fromUriString(labelUrl)
                 .queryParam("search", "openfda.brand_name:\"" + drugName + "\" openfda.generic_name:\"" + drugName + "\"")
                 .queryParam("limit", 1)
-                .toUriString();
+                .build()
+                .toUri();
+
+        // Don't even try while OpenFDA is known to be down
+        if (!circuitBreaker.tryAcquirePermission()) {
+            record("lookup", "rejected", 0);
+            return DrugLookup.error();
+        }
 
+        long start = System.nanoTime();
+        DrugLookup lookup;
         try {
-            // 1. Call the API
-            String response = restTemplate.getForObject(finalUrl, String.class);
-
-            // 2. Parse the JSON to find the "indications_and_usage" (What the drug is for)
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(response);
-
-            // Navigate safely through the complex JSON structure
-            if (root.has("results")) {
-                JsonNode result = root.get("results").get(0);
-                if (result.has("indications_and_usage")) {
-                    String info = result.get("indications_and_usage").get(0).asText();
-                    // Return first 200 chars to keep it short
-                    return info.length() > 200 ? info.substring(0, 200) + "..." : info;
+            // 1. Call the API and 2. read "indications_and_usage" (What the drug is for) straight off the response stream
+            lookup = restTemplate.execute(uri, HttpMethod.GET, null, response -> parseLabel(response.getBody()));
+            circuitBreaker.onSuccess();
+        } catch (HttpClientErrorException e) {
+            // A 4xx means OpenFDA is up; it answers 404 when nothing matches the search
+            circuitBreaker.onSuccess();
+            lookup = e instanceof HttpClientErrorException.NotFound ? DrugLookup.notFound() : DrugLookup.error();
+        } catch (Exception e) {
+            circuitBreaker.onFailure();
+            log.debug("OpenFDA lookup for '{}' failed: {}", drugName, e.getMessage());
+            lookup = DrugLookup.error();
+        }
+        record("lookup", lookup.outcome().name().toLowerCase(Locale.ROOT), System.nanoTime() - start);
+        return lookup;
+    }
+
+    // Turns an OpenFDA /drug/label.json response into a lookup result (public for the JMH benchmarks)
+    public static DrugLookup parseLabel(String response) {
+        try (JsonParser parser = JSON.createParser(response)) {
+            return parseLabel(parser);
+        } catch (IOException e) {
+            return DrugLookup.error();
+        }
+    }
+
+    // Streams the response and stops as soon as the first label's indications are read;
+    // the other sections (often hundreds of KB) are skipped without being turned into Strings.
+    static DrugLookup parseLabel(InputStream response) throws IOException {
+        try (JsonParser parser = JSON.createParser(response)) {
+            return parseLabel(parser);
+        } catch (JsonProcessingException e) {
+            // OpenFDA answered, but not with a label we understand
+            return DrugLookup.error();
+        }
+    }
+
+    private static DrugLookup parseLabel(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return DrugLookup.error();
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return DrugLookup.notFound();
                 }
+                return readIndications(parser);
             }
-            return "Drug found, but no description available.";
-        } catch (Exception e) {
-            return "Drug not found in FDA database.";
+            parser.skipChildren();
         }
+        return DrugLookup.notFound();
     }
 
-// Search for a list of drugs
-    public java.util.List<String> searchDrugs(String query) {
-        String url = "https://api.fda.gov/drug/label.json";
+    // Inside the first label object: returns its "indications_and_usage", cut to 200 chars to keep it short
+    private static DrugLookup readIndications(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("indications_and_usage".equals(field) && value == JsonToken.START_ARRAY
+                    && parser.nextToken() == JsonToken.VALUE_STRING) {
+                // Copy only what we return instead of materialising the whole section
+                int length = parser.getTextLength();
+                String info = new String(parser.getTextCharacters(), parser.getTextOffset(), Math.min(length, MAX_INFO_CHARS));
+                return DrugLookup.found(length > MAX_INFO_CHARS ? info + "..." : info);
+            }
+            parser.skipChildren();
+        }
+        return DrugLookup.found("Drug found, but no description available.");
+    }
+
+    // Search for a list of drugs
+    public List<String> searchDrugs(String query) {
+        return searchDrugPage(query).names();
+    }
 
+    // The same search, also telling whether the page held every matching label
+    public DrugSearchPage searchDrugPage(String query) {
         // 1. Build the URI object directly
-        java.net.URI uri = UriComponentsBuilder.fromUriString(url)
+        URI uri = UriComponentsBuilder.fromUriString(labelUrl)
                 .queryParam("search", "openfda.brand_name:\"" + query + "*\"")
-                .queryParam("limit", 5)
+                .queryParam("limit", SEARCH_LIMIT)
                 .build()
                 .toUri(); // <--- Returns a URI object, preventing double-encoding
 
-        java.util.List<String> drugNames = new java.util.ArrayList<>();
+        if (!circuitBreaker.tryAcquirePermission()) {
+            record("search", "rejected", 0);
+            return DrugSearchPage.empty();
+        }
 
+        long start = System.nanoTime();
         try {
-            // 2. Pass the URI object, NOT the String
-            String response = restTemplate.getForObject(uri, String.class);
+            // 2. Pass the URI object, NOT the String; only openfda.brand_name[0] of each label is read
+            DrugSearchPage page = restTemplate.execute(uri, HttpMethod.GET, null, response -> parseSearchPage(response.getBody()));
+            circuitBreaker.onSuccess();
+            record("search", page.names().isEmpty() ? "not_found" : "found", System.nanoTime() - start);
+            return page;
+        } catch (HttpClientErrorException e) {
+            circuitBreaker.onSuccess(); // 404 = no matches
+            record("search", e instanceof HttpClientErrorException.NotFound ? "not_found" : "error", System.nanoTime() - start);
+        } catch (Exception e) {
+            circuitBreaker.onFailure();
+            record("search", "error", System.nanoTime() - start);
+            log.warn("FDA Search Error: {}", e.getMessage());
+        }
+        return DrugSearchPage.empty();
+    }
 
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(response);
+    // fda.client.requests{operation, outcome}: latency of every OpenFDA call (count = calls per outcome)
+    private void record(String operation, String outcome, long nanos) {
+        Timer.builder("fda.client.requests")
+                .description("OpenFDA HTTP calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
 
-            if (root.has("results")) {
-                for (JsonNode node : root.get("results")) {
-                    if (node.has("openfda") && node.get("openfda").has("brand_name")) {
-                        String name = node.get("openfda").get("brand_name").get(0).asText();
-                        drugNames.add(name);
+    // Completeness counts labels, not names: a full page with a label lacking a brand name is still full
+    static DrugSearchPage parseSearchPage(InputStream response) throws IOException {
+        List<String> drugNames = new ArrayList<>();
+        try (JsonParser parser = JSON.createParser(response)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return DrugSearchPage.empty();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                    int labels = 0;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readBrandName(parser, drugNames);
+                        labels++;
                     }
+                    return new DrugSearchPage(drugNames, labels < SEARCH_LIMIT); // nothing after "results" is needed
                 }
+                parser.skipChildren();
             }
-        } catch (Exception e) {
-            // Log error to console to help debug
-            System.out.println("FDA Search Error: " + e.getMessage());
+        } catch (JsonProcessingException e) {
+            log.warn("FDA Search Error: {}", e.getOriginalMessage());
         }
-        return drugNames;
+        return new DrugSearchPage(drugNames, false);
     }
 
+    // Inside one label object: adds openfda.brand_name[0], skips everything else
+    private static void readBrandName(JsonParser parser, List<String> drugNames) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!"openfda".equals(field) || value != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String openFdaField = parser.currentName();
+                JsonToken names = parser.nextToken();
+                if (!"brand_name".equals(openFdaField) || names != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                boolean first = true;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (first && parser.currentToken() == JsonToken.VALUE_STRING) {
+                        drugNames.add(parser.getText());
+                    }
+                    first = false;
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
 }
\ No newline at end of file
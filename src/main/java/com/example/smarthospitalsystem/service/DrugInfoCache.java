@@ -0,0 +1,181 @@
+package com.example.smarthospitalsystem.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded cache in front of DrugApiService.lookupDrugInfo.
+// - Found answers live for 'ttl', "not found" answers for 'negative-ttl'.
+// - After that an entry is still served for 'stale-window' while a background refresh runs.
+// - Failed calls are never cached; if one happens the old answer (if any) is served instead.
+@Service
+public class DrugInfoCache {
+
+    private final DrugApiService drugApiService;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final long staleWindowNanos;
+
+    // Access-ordered map = LRU eviction once maxEntries is reached
+    private final Map<String, Entry> entries;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+
+    public DrugInfoCache(DrugApiService drugApiService,
+                         @Value("${app.fda.cache.max-entries:2000}") int maxEntries,
+                         @Value("${app.fda.cache.ttl:12h}") Duration ttl,
+                         @Value("${app.fda.cache.negative-ttl:10m}") Duration negativeTtl,
+                         @Value("${app.fda.cache.stale-window:1h}") Duration staleWindow,
+                         MeterRegistry meterRegistry) {
+        this.drugApiService = drugApiService;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.staleWindowNanos = staleWindow.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > DrugInfoCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        // Same numbers as stats(), for dashboards: hit ratio = hit / sum over all outcomes
+        countRequests(meterRegistry, "hit", hits);
+        countRequests(meterRegistry, "negative_hit", negativeHits);
+        countRequests(meterRegistry, "stale", staleHits);
+        countRequests(meterRegistry, "miss", misses);
+        FunctionCounter.builder("fda.cache.evictions", evictions, AtomicLong::get)
+                .description("OpenFDA answers dropped to stay within max-entries").register(meterRegistry);
+        FunctionCounter.builder("fda.cache.load.failures", loadFailures, AtomicLong::get)
+                .description("OpenFDA calls that failed and were not cached").register(meterRegistry);
+        Gauge.builder("fda.cache.size", this, DrugInfoCache::size)
+                .description("OpenFDA answers cached").register(meterRegistry);
+    }
+
+    public String getDrugInfo(String drugName) {
+        return lookup(drugName).info();
+    }
+
+    public DrugLookup lookup(String drugName) {
+        String key = normalize(drugName);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        long now = System.nanoTime();
+        if (entry != null && now - entry.freshUntil < 0) {
+            (entry.value.outcome() == DrugLookup.Outcome.NOT_FOUND ? negativeHits : hits).incrementAndGet();
+            return entry.value;
+        }
+        if (entry != null && now - entry.staleUntil < 0) {
+            staleHits.incrementAndGet();
+            refreshInBackground(key, drugName);
+            return entry.value;
+        }
+
+        misses.incrementAndGet();
+        DrugLookup loaded = drugApiService.lookupDrugInfo(drugName);
+        if (loaded.outcome() == DrugLookup.Outcome.ERROR) {
+            loadFailures.incrementAndGet();
+            return entry != null ? entry.value : loaded;
+        }
+        store(key, loaded);
+        return loaded;
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) size());
+        stats.put("hits", hits.get());
+        stats.put("negativeHits", negativeHits.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("loadFailures", loadFailures.get());
+        return stats;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private void refreshInBackground(String key, String drugName) {
+        // Only one refresh per key at a time
+        if (!refreshing.add(key)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                DrugLookup loaded = drugApiService.lookupDrugInfo(drugName);
+                if (loaded.outcome() == DrugLookup.Outcome.ERROR) {
+                    loadFailures.incrementAndGet();
+                } else {
+                    store(key, loaded);
+                }
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private void store(String key, DrugLookup value) {
+        long now = System.nanoTime();
+        long ttl = value.outcome() == DrugLookup.Outcome.NOT_FOUND ? negativeTtlNanos : ttlNanos;
+        Entry entry = new Entry(value, now + ttl, now + ttl + staleWindowNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private static void countRequests(MeterRegistry meterRegistry, String outcome, AtomicLong count) {
+        FunctionCounter.builder("fda.cache.requests", count, AtomicLong::get)
+                .tag("outcome", outcome)
+                .description("Drug info lookups by how the cache answered them").register(meterRegistry);
+    }
+
+    private static String normalize(String drugName) {
+        return drugName == null ? "" : drugName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(DrugLookup value, long freshUntil, long staleUntil) {
+    }
+}
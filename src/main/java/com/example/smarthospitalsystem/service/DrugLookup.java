@@ -0,0 +1,22 @@
+package com.example.smarthospitalsystem.service;
+
+// Result of one OpenFDA label lookup. The outcome tells a real "not found" apart from a failed call,
+// so callers (the cache) can decide what is safe to remember.
+public record DrugLookup(Outcome outcome, String info) {
+
+    public enum Outcome {
+        FOUND, NOT_FOUND, ERROR
+    }
+
+    public static DrugLookup found(String info) {
+        return new DrugLookup(Outcome.FOUND, info);
+    }
+
+    public static DrugLookup notFound() {
+        return new DrugLookup(Outcome.NOT_FOUND, "Drug not found in FDA database.");
+    }
+
+    public static DrugLookup error() {
+        return new DrugLookup(Outcome.ERROR, "FDA database is currently unavailable.");
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.smarthospitalsystem.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+// Local, memory-mapped autocomplete index of drug brand and generic names.
+// The file is a sorted string table written by DrugNameIndexBuilder:
+//
+//   header   : int magic, int version, int count, int reserved
+//   table    : count x (int entryOffset, int rank)      -- sorted by key bytes
+//   entries  : u16 keyLength, key (lower-case UTF-8), u16 nameLength, name (UTF-8)
+//
+// A prefix lookup is two binary searches over the table plus a top-k scan of the matching range.
+@Component
+public class DrugNameIndex {
+
+    static final int MAGIC = 0x44524758; // "DRGX"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int SLOT_BYTES = 8;
+
+    private static final Logger log = LoggerFactory.getLogger(DrugNameIndex.class);
+
+    private final String indexPath;
+    private volatile Table table;
+
+    public DrugNameIndex(@Value("${app.drugs.index-path:}") String indexPath) {
+        this.indexPath = indexPath;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (indexPath == null || indexPath.isBlank()) {
+            log.info("No drug name index configured (app.drugs.index-path), drug search uses OpenFDA only");
+            return;
+        }
+        Path path = Path.of(indexPath);
+        if (!Files.isReadable(path)) {
+            log.warn("Drug name index {} not found, drug search uses OpenFDA only", path);
+            return;
+        }
+        try {
+            table = open(path);
+            log.info("Loaded drug name index {} ({} names)", path, table.count);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Could not load drug name index {}: {}", path, e.getMessage());
+        }
+    }
+
+    public boolean isLoaded() {
+        return table != null;
+    }
+
+    public int size() {
+        Table t = table;
+        return t == null ? 0 : t.count;
+    }
+
+    // Top 'limit' names starting with 'prefix' (case-insensitive), most common first
+    public List<String> search(String prefix, int limit) {
+        Table t = table;
+        String normalized = normalize(prefix);
+        if (t == null || normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        byte[] p = normalized.getBytes(StandardCharsets.UTF_8);
+
+        int from = boundary(t, p, false);
+        int to = boundary(t, p, true);
+
+        // Min-heap on rank keeps the best 'limit' entries; ties go to the alphabetically first name
+        PriorityQueue<int[]> best = new PriorityQueue<>(limit + 1,
+                (a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(b[0], a[0]));
+        for (int i = from; i < to; i++) {
+            int rank = t.buffer.getInt(HEADER_BYTES + i * SLOT_BYTES + 4);
+            if (best.size() < limit) {
+                best.add(new int[]{i, rank});
+            } else if (rank > best.peek()[1]) {
+                best.poll();
+                best.add(new int[]{i, rank});
+            }
+        }
+
+        String[] names = new String[best.size()];
+        for (int i = names.length - 1; i >= 0; i--) {
+            names[i] = nameAt(t, best.poll()[0]);
+        }
+        return Arrays.asList(names);
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Table open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("not a drug name index (bad header)");
+            }
+            int count = buffer.getInt(8);
+            if ((long) HEADER_BYTES + (long) count * SLOT_BYTES > buffer.limit()) {
+                throw new IllegalStateException("truncated drug name index");
+            }
+            return new Table(buffer, count);
+        }
+    }
+
+    // First index whose key is >= prefix (upper = false) or does not start with and is > prefix (upper = true)
+    private static int boundary(Table t, byte[] prefix, boolean upper) {
+        int lo = 0;
+        int hi = t.count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparePrefix(t.buffer, entryOffset(t, mid), prefix);
+            if (cmp < 0 || (upper && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // < 0 if key sorts before prefix, 0 if key starts with prefix, > 0 otherwise
+    private static int comparePrefix(ByteBuffer buffer, int offset, byte[] prefix) {
+        int keyLength = Short.toUnsignedInt(buffer.getShort(offset));
+        int n = Math.min(keyLength, prefix.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(offset + 2 + i), prefix[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return keyLength < prefix.length ? -1 : 0;
+    }
+
+    private static String nameAt(Table t, int index) {
+        int offset = entryOffset(t, index);
+        int keyLength = Short.toUnsignedInt(t.buffer.getShort(offset));
+        int nameOffset = offset + 2 + keyLength;
+        byte[] name = new byte[Short.toUnsignedInt(t.buffer.getShort(nameOffset))];
+        t.buffer.get(nameOffset + 2, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static int entryOffset(Table t, int index) {
+        return t.buffer.getInt(HEADER_BYTES + index * SLOT_BYTES);
+    }
+
+    private record Table(MappedByteBuffer buffer, int count) {
+    }
+}
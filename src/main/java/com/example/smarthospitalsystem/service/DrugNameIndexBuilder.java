@@ -0,0 +1,182 @@
+package com.example.smarthospitalsystem.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Builds the file read by DrugNameIndex from the offline OpenFDA drug label export
+// (https://open.fda.gov/data/downloads/ -> drug/label, the *.json or *.json.zip parts).
+//
+// Usage: java -cp app.jar com.example.smarthospitalsystem.service.DrugNameIndexBuilder drug-names.idx drug-label-0001-of-0013.json.zip ...
+//
+// Every brand_name and generic_name under "openfda" becomes an entry; its rank is the number of labels that mention it.
+public class DrugNameIndexBuilder {
+
+    private static final int MAX_NAME_BYTES = 255;
+
+    // lower-case key -> display name + number of labels mentioning it
+    private final Map<String, NameCount> names = new HashMap<>();
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: DrugNameIndexBuilder <output.idx> <export.json[.zip]>...");
+            System.exit(1);
+        }
+        DrugNameIndexBuilder builder = new DrugNameIndexBuilder();
+        for (int i = 1; i < args.length; i++) {
+            builder.addExport(Path.of(args[i]));
+        }
+        builder.write(Path.of(args[0]));
+        System.out.println("Wrote " + builder.names.size() + " drug names to " + args[0]);
+    }
+
+    public void addExport(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            if (file.getFileName().toString().endsWith(".zip")) {
+                ZipInputStream zip = new ZipInputStream(in);
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (entry.getName().endsWith(".json")) {
+                        addLabels(new FilterInputStream(zip) {
+                            @Override
+                            public void close() {
+                                // keep the zip open for the next entry
+                            }
+                        });
+                    }
+                }
+            } else {
+                addLabels(in);
+            }
+        }
+    }
+
+    // Streams {"meta": ..., "results": [label, label, ...]} without materialising whole labels
+    public void addLabels(InputStream json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected an OpenFDA export object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        addLabel(parser);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    // Counts one label mentioning 'name'
+    public void addName(String name) {
+        String display = name == null ? "" : name.trim();
+        String key = DrugNameIndex.normalize(display);
+        if (key.isEmpty() || key.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES
+                || display.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+            return;
+        }
+        names.computeIfAbsent(key, k -> new NameCount(display)).labels++;
+    }
+
+    public void write(Path output) throws IOException {
+        // Sort by unsigned UTF-8 bytes, the same order DrugNameIndex binary-searches in
+        List<Row> rows = new ArrayList<>(names.size());
+        names.forEach((key, name) -> rows.add(new Row(key.getBytes(StandardCharsets.UTF_8),
+                name.display.getBytes(StandardCharsets.UTF_8), name.labels)));
+        rows.sort((a, b) -> Arrays.compareUnsigned(a.key, b.key));
+
+        Path tmp = output.resolveSibling(output.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(DrugNameIndex.MAGIC);
+            out.writeInt(DrugNameIndex.VERSION);
+            out.writeInt(rows.size());
+            out.writeInt(0);
+
+            int offset = DrugNameIndex.HEADER_BYTES + rows.size() * DrugNameIndex.SLOT_BYTES;
+            for (Row row : rows) {
+                out.writeInt(offset);
+                out.writeInt(row.rank);
+                offset += 4 + row.key.length + row.name.length;
+            }
+            for (Row row : rows) {
+                out.writeShort(row.key.length);
+                out.write(row.key);
+                out.writeShort(row.name.length);
+                out.write(row.name);
+            }
+        }
+        // Swap in atomically so a running app never maps a half-written file
+        Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void addLabel(JsonParser parser) throws IOException {
+        // A label often repeats the same name as brand and generic, count it once
+        Set<String> labelNames = new HashSet<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("openfda".equals(field)) {
+                collectOpenFdaNames(parser, labelNames);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        labelNames.forEach(this::addName);
+    }
+
+    private void collectOpenFdaNames(JsonParser parser, Set<String> labelNames) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (("brand_name".equals(field) || "generic_name".equals(field)) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                    labelNames.add(parser.getText().trim());
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static final class NameCount {
+        private final String display;
+        private int labels;
+
+        private NameCount(String display) {
+            this.display = display;
+        }
+    }
+
+    private record Row(byte[] key, byte[] name, int rank) {
+    }
+}
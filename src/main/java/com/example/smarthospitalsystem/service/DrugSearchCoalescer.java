@@ -0,0 +1,187 @@
+package com.example.smarthospitalsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sits in front of DrugApiService.searchDrugs so keystroke-driven autocomplete does not turn into one OpenFDA
+// call per keystroke per doctor. In order:
+//  1. recent answers: the same query, or a shorter prefix whose answer was complete (OpenFDA returned fewer
+//     labels than the limit), filtered locally - "amox" answers "amoxi"
+//  2. single flight: a query already on its way to OpenFDA is joined, not sent again
+//  3. per-user debounce: a request waits 'debounce'; if the same user typed again meanwhile it is dropped
+//     (empty answer, the client discards it anyway). Only on virtual threads (spring.threads.virtual.enabled),
+//     where waiting costs no thread; a Tomcat platform worker is never parked for it.
+// Only non-empty answers are kept, since searchDrugPage also answers empty when OpenFDA fails.
+@Service
+public class DrugSearchCoalescer {
+
+    private final DrugApiService drugApiService;
+    private final long ttlNanos;
+    private final long debounceNanos;
+
+    // Access-ordered map = LRU eviction once maxEntries is reached
+    private final Map<String, Entry> recent;
+    private final Map<String, CompletableFuture<List<String>>> inFlight = new ConcurrentHashMap<>();
+    // user -> ticket of their latest request; an older ticket means the request was superseded
+    private final Map<Object, Object> latestRequest = new ConcurrentHashMap<>();
+
+    private final Counter upstream;
+    private final Counter cached;
+    private final Counter prefix;
+    private final Counter coalesced;
+    private final Counter superseded;
+
+    public DrugSearchCoalescer(DrugApiService drugApiService,
+                               @Value("${app.drugs.remote-cache.max-entries:1000}") int maxEntries,
+                               @Value("${app.drugs.remote-cache.ttl:10m}") Duration ttl,
+                               @Value("${app.drugs.remote-debounce:150ms}") Duration debounce,
+                               MeterRegistry meterRegistry) {
+        this.drugApiService = drugApiService;
+        this.ttlNanos = ttl.toNanos();
+        this.debounceNanos = debounce.toNanos();
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.upstream = counter(meterRegistry, "upstream", "Searches sent to OpenFDA");
+        this.cached = counter(meterRegistry, "cached", "Searches answered by a recent identical search");
+        this.prefix = counter(meterRegistry, "prefix", "Searches answered by filtering a recent shorter search");
+        this.coalesced = counter(meterRegistry, "coalesced", "Searches that joined an identical search in flight");
+        this.superseded = counter(meterRegistry, "superseded", "Searches dropped because the user typed again");
+    }
+
+    // 'user' identifies whose keystrokes these are (null = no debounce)
+    public List<String> search(String query, Object user) {
+        String key = normalize(query);
+        Object ticket = new Object();
+        if (user != null) {
+            latestRequest.put(user, ticket);
+        }
+        try {
+            List<String> answer = answerLocally(key);
+            if (answer != null) {
+                return answer;
+            }
+            if (user != null && debounceNanos > 0 && Thread.currentThread().isVirtual()) {
+                Thread.sleep(Duration.ofNanos(debounceNanos));
+                if (latestRequest.get(user) != ticket) {
+                    superseded.increment();
+                    return List.of();
+                }
+                // Someone else may have fetched it while we waited
+                answer = answerLocally(key);
+                if (answer != null) {
+                    return answer;
+                }
+            }
+            return fetch(key, query.trim());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } finally {
+            if (user != null) {
+                latestRequest.remove(user, ticket);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    // A recent answer for the query or a complete one for a prefix of it, else the search in flight, else null
+    private List<String> answerLocally(String key) {
+        long now = System.nanoTime();
+        synchronized (recent) {
+            Entry exact = recent.get(key);
+            if (exact != null && now - exact.expiresAt < 0) {
+                cached.increment();
+                return exact.names;
+            }
+            for (int length = key.length() - 1; length > 0; length--) {
+                Entry shorter = recent.get(key.substring(0, length));
+                if (shorter != null && shorter.complete && now - shorter.expiresAt < 0) {
+                    prefix.increment();
+                    return filter(shorter.names, key);
+                }
+            }
+        }
+        CompletableFuture<List<String>> running = inFlight.get(key);
+        if (running != null) {
+            coalesced.increment();
+            return running.join();
+        }
+        return null;
+    }
+
+    private List<String> fetch(String key, String query) {
+        CompletableFuture<List<String>> mine = new CompletableFuture<>();
+        CompletableFuture<List<String>> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return running.join();
+        }
+        try {
+            upstream.increment();
+            DrugSearchPage page = drugApiService.searchDrugPage(query);
+            List<String> names = page.names();
+            if (!names.isEmpty()) {
+                Entry entry = new Entry(List.copyOf(names), page.complete(), System.nanoTime() + ttlNanos);
+                synchronized (recent) {
+                    recent.put(key, entry);
+                }
+            }
+            mine.complete(names);
+            return names;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // OpenFDA matches "amox*" against every word of the brand name, so do the same
+    static List<String> filter(List<String> names, String key) {
+        List<String> matching = new ArrayList<>();
+        for (String name : names) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            int at = lower.indexOf(key);
+            while (at >= 0) {
+                if (at == 0 || !Character.isLetterOrDigit(lower.charAt(at - 1))) {
+                    matching.add(name);
+                    break;
+                }
+                at = lower.indexOf(key, at + 1);
+            }
+        }
+        return matching;
+    }
+
+    private static String normalize(String query) {
+        return query.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome, String description) {
+        return Counter.builder("drugs.search.remote").tag("outcome", outcome)
+                .description(description).register(meterRegistry);
+    }
+
+    private record Entry(List<String> names, boolean complete, long expiresAt) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.smarthospitalsystem.service;
+
+import java.util.List;
+
+// Brand names from one OpenFDA search page. 'complete' means OpenFDA returned fewer labels than the page limit,
+// so nothing matching the query was cut off. Labels without a brand name count too, so names may be shorter.
+public record DrugSearchPage(List<String> names, boolean complete) {
+
+    public static DrugSearchPage empty() {
+        return new DrugSearchPage(List.of(), false);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.smarthospitalsystem.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Drug name autocomplete: answers from the local index, OpenFDA is only an (optional) fallback,
+// reached through DrugSearchCoalescer
+@Service
+public class DrugSearchService {
+
+    @Autowired
+    private DrugNameIndex drugNameIndex;
+
+    @Autowired
+    private DrugSearchCoalescer drugSearchCoalescer;
+
+    @Value("${app.drugs.remote-fallback:true}")
+    private boolean remoteFallback;
+
+    @Value("${app.drugs.search-limit:5}")
+    private int searchLimit;
+
+    // 'user' is whose keystrokes these are, so their superseded OpenFDA searches can be dropped
+    public List<String> search(String query, Object user) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+
+        if (drugNameIndex.isLoaded()) {
+            List<String> local = drugNameIndex.search(query, searchLimit);
+            if (!local.isEmpty() || !remoteFallback) {
+                return local;
+            }
+        } else if (!remoteFallback) {
+            return List.of();
+        }
+
+        return drugSearchCoalescer.search(query, user);
+    }
+}
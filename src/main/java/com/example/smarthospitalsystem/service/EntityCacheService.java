@@ -0,0 +1,52 @@
+package com.example.smarthospitalsystem.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Hit ratios of Hibernate's second-level and query caches, and eviction for writes Hibernate does not see.
+// The same numbers are exported as hibernate.second.level.cache.* / hibernate.cache.query.* meters.
+@Service
+public class EntityCacheService {
+
+    private final SessionFactory sessionFactory;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    // Plain JDBC inserts (bulk import) leave cached entities valid but can make cached query results
+    // wrong, e.g. a findByUsername that found nobody a minute ago
+    public void evictQueryResults() {
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    // region -> hits / misses / puts / hitRatio, plus "query-cache" for all cached queries together
+    public Map<String, Map<String, Object>> stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats != null) {
+                stats.put(region, counts(regionStats.getHitCount(), regionStats.getMissCount(), regionStats.getPutCount()));
+            }
+        }
+        stats.put("query-cache", counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+        return stats;
+    }
+
+    private static Map<String, Object> counts(long hits, long misses, long puts) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        counts.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return counts;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.smarthospitalsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Circuit breaker around the OpenFDA HTTP calls.
+// CLOSED: calls go through. After 'failure-threshold' failures in a row -> OPEN.
+// OPEN: calls are refused right away for 'open-duration', then one trial call is let through (HALF_OPEN).
+// HALF_OPEN: the trial decides - success closes the breaker, failure opens it again.
+@Component
+public class FdaCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final Counter opened;
+    private final Counter closed;
+    private final Counter rejected;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public FdaCircuitBreaker(@Value("${app.fda.breaker.failure-threshold:5}") int failureThreshold,
+                             @Value("${app.fda.breaker.open-duration:30s}") Duration openDuration,
+                             MeterRegistry meterRegistry) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.opened = Counter.builder("fda.breaker.transitions").tag("to", "open")
+                .description("Times the OpenFDA circuit breaker tripped open").register(meterRegistry);
+        this.closed = Counter.builder("fda.breaker.transitions").tag("to", "closed")
+                .description("Times the OpenFDA circuit breaker recovered").register(meterRegistry);
+        this.rejected = Counter.builder("fda.breaker.rejected")
+                .description("OpenFDA calls refused while the breaker was open").register(meterRegistry);
+        Gauge.builder("fda.breaker.state", this, b -> b.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open").register(meterRegistry);
+    }
+
+    // Must be followed by onSuccess() or onFailure() when it returns true
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    trialInFlight = true;
+                    return true;
+                }
+                break;
+            case HALF_OPEN:
+                if (!trialInFlight) {
+                    trialInFlight = true;
+                    return true;
+                }
+                break;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            closed.increment();
+        }
+    }
+
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            opened.increment();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.model.User;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+// The logged-in principal. Built once at login by CustomUserDetailsService and kept in the session,
+// so requests get the user id, role and doctor id without looking the user up again.
+public class HospitalUserDetails extends org.springframework.security.core.userdetails.User {
+
+    private final Long userId;
+    private final User.Role role;
+    private final Long doctorId; // null unless role is DOCTOR
+    // Fingerprint of the stored password hash, taken when the account was loaded. Unlike the password it
+    // survives eraseCredentials(), so login can bind the refresh token to it. Null on token-built principals.
+    private final String credentialsFingerprint;
+
+    public HospitalUserDetails(Long userId, String username, String password, User.Role role, Long doctorId) {
+        this(userId, username, password, role, doctorId, null);
+    }
+
+    public HospitalUserDetails(Long userId, String username, String password, User.Role role, Long doctorId,
+                               String credentialsFingerprint) {
+        super(username, password, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        this.userId = userId;
+        this.role = role;
+        this.doctorId = doctorId;
+        this.credentialsFingerprint = credentialsFingerprint;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public User.Role getRole() {
+        return role;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public String getCredentialsFingerprint() {
+        return credentialsFingerprint;
+    }
+
+    public boolean isDoctor() {
+        return role == User.Role.DOCTOR && doctorId != null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.exception.IdempotencyKeyReusedException;
+import com.example.smarthospitalsystem.exception.InvalidRequestException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+// Remembers the answer to a request sent with an Idempotency-Key header, so a client or proxy retrying a slow
+// booking gets the original answer instead of a second appointment.
+// - The first request with a key runs; duplicates arriving while it runs wait for it and share its answer.
+// - Answers are kept for 'ttl', at most 'max-entries' of them (least recently used go first), in memory on this node.
+// - Failures are not kept: waiting duplicates get the same error, later retries run again.
+// - Reusing a key for a different request is refused (422).
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final long ttlNanos;
+    private final MeterRegistry meterRegistry;
+
+    // "<scope>|<key>" -> entry. Access-ordered map = LRU eviction once maxEntries is reached
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(@Value("${app.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                            MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.meterRegistry = meterRegistry;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        Gauge.builder("idempotency.keys", this, IdempotencyStore::size)
+                .description("Idempotency keys remembered").register(meterRegistry);
+    }
+
+    // Runs 'action' once per (scope, key); without a key it simply runs. 'scope' keeps callers apart
+    // (operation + user). 'requestFields' are the fields of the request body, compared one by one with equals():
+    // a retry must send the same values, so the same key cannot book something else.
+    public <T> Result<T> execute(String scope, String key, List<?> requestFields, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return new Result<>(action.get(), false);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + "|" + key.trim();
+        List<?> fingerprint = new ArrayList<>(requestFields); // may hold nulls (fields the client left out)
+
+        Entry entry;
+        boolean first = false;
+        synchronized (entries) {
+            entry = entries.get(id);
+            if (entry != null && System.nanoTime() - entry.expiresAt >= 0) {
+                entries.remove(id);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(fingerprint, new CompletableFuture<>(), System.nanoTime() + ttlNanos);
+                entries.put(id, entry);
+                first = true;
+            }
+        }
+        if (!entry.fingerprint.equals(fingerprint)) {
+            count("reused");
+            throw new IdempotencyKeyReusedException("This " + HEADER + " was already used for a different request");
+        }
+
+        if (first) {
+            count("new");
+            try {
+                T value = action.get();
+                entry.answer.complete(value);
+                return new Result<>(value, false);
+            } catch (RuntimeException e) {
+                forget(id, entry);
+                entry.answer.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        count(entry.answer.isDone() ? "replayed" : "joined");
+        try {
+            @SuppressWarnings("unchecked")
+            T value = (T) entry.answer.join();
+            return new Result<>(value, true);
+        } catch (CompletionException e) {
+            // The first request failed: give the duplicate the same error
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void forget(String id, Entry entry) {
+        synchronized (entries) {
+            entries.remove(id, entry);
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("idempotency.requests", "outcome", outcome).increment();
+    }
+
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    private record Entry(List<?> fingerprint, CompletableFuture<Object> answer, long expiresAt) {
+    }
+}
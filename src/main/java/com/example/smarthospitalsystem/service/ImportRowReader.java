@@ -0,0 +1,176 @@
+package com.example.smarthospitalsystem.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Reads bulk-import rows one at a time from a CSV (header row first) or NDJSON (one JSON object per line) stream.
+// Column names are matched case-insensitively; a row that cannot be parsed comes back with 'error' set
+// so the import can report it and carry on with the next one.
+public abstract class ImportRowReader {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    public record Row(long line, Map<String, String> fields, String error) {
+
+        public String get(String column) {
+            String value = fields.get(column.toLowerCase(Locale.ROOT));
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+
+    protected final BufferedReader reader;
+    protected long lineNumber;
+
+    private ImportRowReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    public static ImportRowReader csv(InputStream in) {
+        return new Csv(in);
+    }
+
+    public static ImportRowReader ndjson(InputStream in) {
+        return new NdJson(in);
+    }
+
+    // Next row, or null at the end of the input
+    public abstract Row next() throws IOException;
+
+    private static final class Csv extends ImportRowReader {
+
+        private List<String> header;
+
+        private Csv(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord();
+                if (names == null) {
+                    return null;
+                }
+                header = names.stream().map(n -> n.trim().toLowerCase(Locale.ROOT)).toList();
+            }
+            List<String> values;
+            long start;
+            do {
+                start = lineNumber + 1;
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank()); // skip empty lines
+
+            if (values.size() != header.size()) {
+                return new Row(start, Map.of(), "Expected " + header.size() + " columns but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            return new Row(start, fields, null);
+        }
+
+        // One RFC 4180 record: quoted fields may contain commas, "" and line breaks
+        private List<String> readRecord() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // quoted field continues on the next line
+                    line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    lineNumber++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            values.add(field.toString());
+            return values;
+        }
+    }
+
+    private static final class NdJson extends ImportRowReader {
+
+        private NdJson(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                lineNumber++;
+            } while (line.isBlank());
+
+            try (JsonParser parser = JSON.createParser(line)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return new Row(lineNumber, Map.of(), "Expected a JSON object");
+                }
+                Map<String, String> fields = new HashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName().toLowerCase(Locale.ROOT);
+                    JsonToken value = parser.nextToken();
+                    if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                        fields.put(name, parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                return new Row(lineNumber, fields, null);
+            } catch (JsonProcessingException e) {
+                return new Row(lineNumber, Map.of(), "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+
+// Published by PrescriptionService once a prescription is saved (before its FDA notes are filled in)
+public record PrescriptionCreatedEvent(Long prescriptionId, AppointmentSummary appointment) {
+}
@@ -0,0 +1,119 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.model.Appointment;
+import com.example.smarthospitalsystem.model.Prescription;
+import com.example.smarthospitalsystem.repository.PrescriptionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class PrescriptionService {
+
+    static final String PENDING_NOTES = "FDA INFO: lookup pending...";
+
+    private final AppointmentService appointmentService;
+    private final PrescriptionRepository prescriptionRepository;
+    private final DrugInfoCache drugInfoCache;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // FDA lookups run on virtual threads, never on the Tomcat worker that saved the prescription
+    private final ExecutorService fdaExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    // Bulkhead: at most this many lookups in flight, extra ones are skipped instead of queued
+    private final Semaphore bulkhead;
+    private final long lookupTimeoutMillis;
+
+    public PrescriptionService(AppointmentService appointmentService,
+                               PrescriptionRepository prescriptionRepository,
+                               DrugInfoCache drugInfoCache,
+                               MeterRegistry meterRegistry,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${app.fda.max-concurrent-lookups:20}") int maxConcurrentLookups,
+                               @Value("${app.fda.lookup-timeout:5s}") Duration lookupTimeout) {
+        this.appointmentService = appointmentService;
+        this.prescriptionRepository = prescriptionRepository;
+        this.drugInfoCache = drugInfoCache;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.bulkhead = new Semaphore(maxConcurrentLookups);
+        this.lookupTimeoutMillis = lookupTimeout.toMillis();
+        Gauge.builder("fda.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Free OpenFDA lookup slots").register(meterRegistry);
+    }
+
+    // Save right away; the FDA notes are filled in once the lookup finishes
+    public Prescription createPrescription(Long appointmentId, String diagnosis, String medicineName, String dosage) {
+        // Mark appointment as COMPLETED (same path as a doctor's status change, so read models see it)
+        Appointment appointment = appointmentService.updateStatus(appointmentId, Appointment.Status.COMPLETED);
+
+        Prescription prescription = new Prescription();
+        prescription.setAppointment(appointment);
+        prescription.setMedicineName(medicineName);
+        prescription.setDosage(dosage);
+        prescription.setDiagnosis(diagnosis);
+        prescription.setNotes(PENDING_NOTES);
+
+        Prescription saved = prescriptionRepository.save(prescription);
+        eventPublisher.publishEvent(new PrescriptionCreatedEvent(saved.getId(), AppointmentSummary.of(appointment)));
+        enrichInBackground(saved.getId(), medicineName);
+        return saved;
+    }
+
+    private void enrichInBackground(Long prescriptionId, String medicineName) {
+        if (!bulkhead.tryAcquire()) {
+            countOutcome("rejected");
+            // Even the "skipped" note is written off the request thread, which only ever does the insert
+            fdaExecutor.execute(() ->
+                    prescriptionRepository.updateNotes(prescriptionId, "FDA INFO: lookup skipped, service busy."));
+            return;
+        }
+
+        CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return drugInfoCache.lookup(medicineName);
+                    } finally {
+                        // Released when the call really ends, not on timeout, so the limit holds
+                        bulkhead.release();
+                    }
+                }, fdaExecutor)
+                .orTimeout(lookupTimeoutMillis, TimeUnit.MILLISECONDS)
+                .whenCompleteAsync((lookup, error) -> {
+                    String info;
+                    if (error == null) {
+                        countOutcome(lookup.outcome().name().toLowerCase(Locale.ROOT));
+                        info = lookup.info();
+                    } else if (error instanceof TimeoutException || error.getCause() instanceof TimeoutException) {
+                        countOutcome("timeout");
+                        info = "FDA lookup timed out.";
+                    } else {
+                        countOutcome("error");
+                        info = DrugLookup.error().info();
+                    }
+                    prescriptionRepository.updateNotes(prescriptionId, "FDA INFO: " + info);
+                }, fdaExecutor);
+    }
+
+    private void countOutcome(String outcome) {
+        meterRegistry.counter("fda.enrichment", "outcome", outcome).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fdaExecutor.shutdown();
+    }
+}
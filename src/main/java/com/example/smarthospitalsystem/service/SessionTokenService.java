@@ -0,0 +1,277 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.model.Doctor;
+import com.example.smarthospitalsystem.model.User;
+import com.example.smarthospitalsystem.repository.DoctorRepository;
+import com.example.smarthospitalsystem.repository.UserRepository;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Signed, stateless session tokens (app.security.stateless=true), so any API node can authenticate a request
+// without a server-side session. Format: <kid>.<base64url payload>.<base64url HMAC-SHA256 of "kid.payload">.
+//  - access token:  a|userId|role|doctorId|issuedAt|expiresAt|username  (short-lived, checked with no DB access)
+//  - refresh token: r|userId|issuedAt|expiresAt|credentials fingerprint (only accepted by /api/auth/refresh,
+//    which re-reads the account, so deleted accounts and changed passwords stop refreshing on every node)
+// Keys rotate by kid: the first key in app.security.token.keys signs, all of them verify.
+@Service
+public class SessionTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTokenService.class);
+
+    public static final String ACCESS_COOKIE = "HSA_ACCESS";
+    public static final String REFRESH_COOKIE = "HSA_REFRESH";
+    public static final String REFRESH_PATH = "/api/auth/refresh";
+
+    private static final String HMAC = "HmacSHA256";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private DoctorRepository doctorRepository;
+
+    private final boolean enabled;
+    private final String signingKid;
+    private final Map<String, Mac> macs = new LinkedHashMap<>(); // kid -> initialized prototype, cloned per use
+    private final long accessTtlMillis;
+    private final long refreshTtlMillis;
+    private final boolean secureCookies;
+    private final String sameSite;
+    // userId -> tokens issued before this instant are refused (admin edits on this node; see UserSessionService)
+    private final Map<Long, Long> notBefore = new ConcurrentHashMap<>();
+
+    public SessionTokenService(@Value("${app.security.stateless:false}") boolean enabled,
+                               @Value("${app.security.token.keys:}") List<String> keys,
+                               @Value("${app.security.token.access-ttl:15m}") Duration accessTtl,
+                               @Value("${app.security.token.refresh-ttl:12h}") Duration refreshTtl,
+                               @Value("${server.servlet.session.cookie.secure:false}") boolean secureCookies,
+                               @Value("${server.servlet.session.cookie.same-site:Lax}") String sameSite) {
+        this.enabled = enabled;
+        this.accessTtlMillis = accessTtl.toMillis();
+        this.refreshTtlMillis = refreshTtl.toMillis();
+        this.secureCookies = secureCookies;
+        this.sameSite = sameSite;
+
+        for (String entry : keys) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Token keys are 'kid:base64secret', got '" + entry + "'");
+            }
+            macs.put(entry.substring(0, colon).trim(), mac(Base64.getDecoder().decode(entry.substring(colon + 1).trim())));
+        }
+        if (macs.isEmpty()) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            macs.put("local", mac(secret));
+            if (enabled) {
+                log.warn("app.security.token.keys is empty: using a random key, tokens only work on this node until restart");
+            }
+        }
+        this.signingKid = macs.keySet().iterator().next();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String issueAccess(HospitalUserDetails user) {
+        long now = System.currentTimeMillis();
+        return sign("a|" + user.getUserId() + "|" + user.getRole().name() + "|"
+                + (user.getDoctorId() == null ? "" : user.getDoctorId()) + "|" + now + "|" + (now + accessTtlMillis)
+                + "|" + user.getUsername());
+    }
+
+    public String issueRefresh(Long userId, String credentialsFingerprint) {
+        long now = System.currentTimeMillis();
+        return sign("r|" + userId + "|" + now + "|" + (now + refreshTtlMillis) + "|" + credentialsFingerprint);
+    }
+
+    // The principal carried by a valid, unexpired access token, or null. No DB or session access.
+    public HospitalUserDetails verifyAccess(String token) {
+        String[] claims = verify(token, 'a', 7);
+        if (claims == null) {
+            return null;
+        }
+        try {
+            Long userId = Long.valueOf(claims[1]);
+            if (!isCurrent(userId, Long.parseLong(claims[4]), Long.parseLong(claims[5]))) {
+                return null;
+            }
+            Long doctorId = claims[3].isEmpty() ? null : Long.valueOf(claims[3]);
+            // No password in a token-built principal; it is never used for authentication again
+            return new HospitalUserDetails(userId, claims[6], "", User.Role.valueOf(claims[2]), doctorId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Login: hand out both cookies. The refresh token is bound to the hash the principal was loaded with
+    public void writeCookies(HttpServletResponse response, HospitalUserDetails user) {
+        if (user.getCredentialsFingerprint() == null) {
+            throw new IllegalStateException("Principal of " + user.getUsername() + " was not loaded from the account");
+        }
+        addCookie(response, ACCESS_COOKIE, issueAccess(user), "/", accessTtlMillis);
+        addCookie(response, REFRESH_COOKIE, issueRefresh(user.getUserId(), user.getCredentialsFingerprint()),
+                REFRESH_PATH, refreshTtlMillis);
+    }
+
+    // Trades the refresh cookie for a new access cookie after re-reading the account; null if refused.
+    // The refresh token itself is not renewed, so a login lasts at most refresh-ttl.
+    public HospitalUserDetails refresh(HttpServletRequest request, HttpServletResponse response) {
+        String[] claims = verify(cookie(request, REFRESH_COOKIE), 'r', 5);
+        if (claims == null) {
+            return null;
+        }
+        try {
+            Long userId = Long.valueOf(claims[1]);
+            if (!isCurrent(userId, Long.parseLong(claims[2]), Long.parseLong(claims[3]))) {
+                return null;
+            }
+            User account = userRepository.findById(userId).orElse(null);
+            if (account == null || !fingerprint(account.getPassword()).equals(claims[4])) {
+                return null; // deleted, or the password was changed since login
+            }
+            Long doctorId = account.getRole() == User.Role.DOCTOR
+                    ? doctorRepository.findByUserId(userId).map(Doctor::getId).orElse(null) : null;
+            HospitalUserDetails user = new HospitalUserDetails(userId, account.getUsername(), "", account.getRole(), doctorId);
+            addCookie(response, ACCESS_COOKIE, issueAccess(user), "/", accessTtlMillis);
+            return user;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public void clearCookies(HttpServletResponse response) {
+        addCookie(response, ACCESS_COOKIE, "", "/", 0);
+        addCookie(response, REFRESH_COOKIE, "", REFRESH_PATH, 0);
+    }
+
+    // Refuses this user's tokens issued so far (this node only; other nodes stop at the next refresh)
+    public void revoke(Long userId) {
+        notBefore.put(userId, System.currentTimeMillis());
+    }
+
+    // Bearer header first (API clients), then the access cookie (browser)
+    public static String resolveAccessToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return header.substring(7).trim();
+        }
+        return cookie(request, ACCESS_COOKIE);
+    }
+
+    private boolean isCurrent(Long userId, long issuedAt, long expiresAt) {
+        Long revokedAt = notBefore.get(userId);
+        return expiresAt > System.currentTimeMillis() && (revokedAt == null || issuedAt > revokedAt);
+    }
+
+    private String sign(String claims) {
+        String payload = B64.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        String signed = signingKid + "." + payload;
+        return signed + "." + B64.encodeToString(newMac(signingKid).doFinal(signed.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    // Claims of a well-formed token of the given type with a valid signature, or null
+    private String[] verify(String token, char type, int fields) {
+        if (token == null) {
+            return null;
+        }
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first <= 0 || last == first) {
+            return null;
+        }
+        String kid = token.substring(0, first);
+        if (!macs.containsKey(kid)) {
+            return null; // unknown or retired key
+        }
+        try {
+            byte[] expected = newMac(kid).doFinal(token.substring(0, last).getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(expected, B64_DECODER.decode(token.substring(last + 1)))) {
+                return null;
+            }
+            String claims = new String(B64_DECODER.decode(token.substring(first + 1, last)), StandardCharsets.UTF_8);
+            String[] parts = claims.split("\\|", -1);
+            return parts.length == fields && parts[0].length() == 1 && parts[0].charAt(0) == type ? parts : null;
+        } catch (IllegalArgumentException e) {
+            return null; // not base64
+        }
+    }
+
+    private Mac newMac(String kid) {
+        Mac prototype = macs.get(kid);
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(HMAC + " provider does not support cloning", e);
+        }
+    }
+
+    private void addCookie(HttpServletResponse response, String name, String value, String path, long maxAgeMillis) {
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(name, value)
+                .httpOnly(true)
+                .secure(secureCookies)
+                .sameSite(sameSite)
+                .path(path)
+                .maxAge(Duration.ofMillis(maxAgeMillis))
+                .build().toString());
+    }
+
+    private static String cookie(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookie.getName().equals(name) && !cookie.getValue().isEmpty()) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    // Short hash of the stored password hash: changes whenever the password does, reveals nothing about it
+    static String fingerprint(String passwordHash) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(passwordHash.getBytes(StandardCharsets.UTF_8));
+            return B64.encodeToString(digest).substring(0, 12);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Mac mac(byte[] secret) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("Token keys must be at least 256 bits");
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(secret, HMAC));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
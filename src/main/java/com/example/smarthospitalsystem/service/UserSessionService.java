@@ -0,0 +1,27 @@
+package com.example.smarthospitalsystem.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.stereotype.Service;
+
+// Invalidation path for the session-cached principal: when an admin changes or deletes an account,
+// its sessions are expired so the next request has to log in again and picks up the new details.
+// In stateless mode there are no sessions: its tokens are refused on this node, and on every node at the next refresh.
+@Service
+public class UserSessionService {
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    public void invalidate(Long userId) {
+        sessionTokenService.revoke(userId);
+        for (Object principal : sessionRegistry.getAllPrincipals()) {
+            if (principal instanceof HospitalUserDetails details && details.getUserId().equals(userId)) {
+                sessionRegistry.getAllSessions(principal, false).forEach(SessionInformation::expireNow);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.smarthospitalsystem.config;
+
+import com.example.smarthospitalsystem.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTests {
+
+    @Test
+    void hashesWithConfiguredCostAndFlagsWeakerHashesForUpgrade() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 2, 10, Duration.ofSeconds(10), registry);
+
+        String hash = encoder.encode("Secret#123");
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("Secret#123", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("Secret#123")));
+
+        assertEquals(2, registry.get("auth.hashing").tag("operation", "encode").timer().count()
+                + registry.get("auth.hashing").tag("operation", "matches").timer().count());
+        encoder.shutdown();
+    }
+
+    @Test
+    void refusesWorkWhenThePoolAndQueueAreFull() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // One hashing thread and room for one waiting request; a slow cost keeps both busy
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(14, 1, 1, Duration.ofSeconds(30), registry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        CountDownLatch started = new CountDownLatch(2);
+        try {
+            Future<?> first = callers.submit(() -> { started.countDown(); return encoder.encode("Secret#123"); });
+            Future<?> second = callers.submit(() -> { started.countDown(); return encoder.encode("Secret#123"); });
+            started.await();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (registry.get("auth.hashing.queue").gauge().value() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertThrows(PasswordHashingOverloadedException.class, () -> encoder.encode("Secret#123"));
+            assertEquals(1.0, registry.get("auth.hashing.rejected").counter().count());
+            first.cancel(true);
+            second.cancel(true);
+        } finally {
+            callers.shutdownNow();
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAllHashesEveryPasswordInOrder() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, 2, 1, Duration.ofSeconds(10), new SimpleMeterRegistry());
+
+        List<String> hashes = encoder.encodeAll(List.of("Alpha#111", "Bravo#222", "Charlie#333", "Delta#444"));
+
+        assertEquals(4, hashes.size());
+        assertTrue(encoder.matches("Charlie#333", hashes.get(2)));
+        encoder.shutdown();
+    }
+}
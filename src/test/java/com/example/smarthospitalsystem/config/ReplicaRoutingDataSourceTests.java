@@ -0,0 +1,99 @@
+package com.example.smarthospitalsystem.config;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.model.Appointment;
+import com.example.smarthospitalsystem.model.User;
+import com.example.smarthospitalsystem.service.AppointmentChangedEvent;
+import com.example.smarthospitalsystem.service.HospitalUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two embedded H2 databases stand in for the primary and a replica; each one answers with its own name
+class ReplicaRoutingDataSourceTests {
+
+    private final ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(Duration.ofMinutes(1));
+
+    @AfterEach
+    void logout() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaEverythingElseThePrimary() {
+        DataSource routing = routing(database("replica"));
+
+        assertEquals("replica", whoAnswers(routing, true));
+        assertEquals("replica", whoAnswers(routing, true));
+        assertEquals("primary", whoAnswers(routing, false));
+        assertEquals("primary", new JdbcTemplate(routing).queryForObject("SELECT name FROM source", String.class));
+    }
+
+    @Test
+    void usersReadTheirOwnWritesFromThePrimary() {
+        DataSource routing = routing(database("replica"));
+
+        login(new HospitalUserDetails(7L, "patient7", "x", User.Role.PATIENT, null));
+        assertEquals("replica", whoAnswers(routing, true));
+        whoAnswers(routing, false); // this user writes something
+        assertEquals("primary", whoAnswers(routing, true));
+
+        login(new HospitalUserDetails(8L, "patient8", "x", User.Role.PATIENT, null));
+        assertEquals("replica", whoAnswers(routing, true));
+
+        // A booking pins both sides of the appointment, not just the user who made the request
+        readYourWrites.onAppointmentChanged(new AppointmentChangedEvent(new AppointmentSummary(1L, LocalDateTime.now(),
+                Appointment.Status.PENDING, 8L, "Patient", 3L, "Doctor", "General", "Clinic"), null, true));
+        assertEquals("primary", whoAnswers(routing, true));
+        login(new HospitalUserDetails(30L, "doctor3", "x", User.Role.DOCTOR, 3L));
+        assertEquals("primary", whoAnswers(routing, true));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        DataSource routing = routing(new DriverManagerDataSource("jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE"));
+
+        assertEquals("primary", whoAnswers(routing, true));
+    }
+
+    private DataSource routing(DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(database("primary"), List.of(replica),
+                readYourWrites, new SimpleMeterRegistry()));
+    }
+
+    private static String whoAnswers(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM source", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE source (name VARCHAR(20))");
+        jdbc.update("INSERT INTO source (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void login(HospitalUserDetails user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.smarthospitalsystem.controller;
+
+import com.example.smarthospitalsystem.model.Department;
+import com.example.smarthospitalsystem.repository.DepartmentRepository;
+import com.example.smarthospitalsystem.repository.DoctorRepository;
+import com.example.smarthospitalsystem.service.DirectoryVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Revalidating the directory with a current ETag must be answered without touching the repositories
+class DirectoryConditionalGetTests {
+
+    private final DepartmentRepository departmentRepository = mock(DepartmentRepository.class);
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final DirectoryVersion directoryVersion = new DirectoryVersion();
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        APIController controller = new APIController();
+        ReflectionTestUtils.setField(controller, "departmentRepository", departmentRepository);
+        ReflectionTestUtils.setField(controller, "doctorRepository", doctorRepository);
+        ReflectionTestUtils.setField(controller, "directoryVersion", directoryVersion);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        Department cardiology = new Department();
+        cardiology.setId(1L);
+        cardiology.setName("Cardiology");
+        when(departmentRepository.findAll()).thenReturn(List.of(cardiology));
+        when(doctorRepository.findByDepartmentId(1L)).thenReturn(List.of());
+    }
+
+    @Test
+    void currentEtagGets304WithoutRepositoryAccess() throws Exception {
+        String etag = mvc.perform(get("/api/departments"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$[0].name").value("Cardiology"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(departmentRepository);
+
+        mvc.perform(get("/api/departments").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mvc.perform(get("/api/doctors/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(departmentRepository, doctorRepository);
+    }
+
+    @Test
+    void adminChangeInvalidatesTheEtag() throws Exception {
+        String etag = mvc.perform(get("/api/doctors/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        directoryVersion.bump();
+
+        mvc.perform(get("/api/doctors/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, directoryVersion.etag()));
+        verify(doctorRepository, times(2)).findByDepartmentId(1L);
+    }
+}
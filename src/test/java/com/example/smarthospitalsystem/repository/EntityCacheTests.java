@@ -0,0 +1,110 @@
+package com.example.smarthospitalsystem.repository;
+
+import com.example.smarthospitalsystem.model.User;
+import com.example.smarthospitalsystem.service.CustomUserDetailsService;
+import com.example.smarthospitalsystem.service.HospitalUserDetails;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Starts JPA with the second-level and query caches exactly as application.properties configures them.
+// Not transactional: Hibernate only fills the caches from committed work.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CustomUserDetailsService.class)
+class EntityCacheTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.findByUsername("cacheduser").ifPresent(userRepository::delete);
+        userRepository.findByUsername("cachedother").ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void regionsUseTheSizesFromHibernateJcacheConf() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        assertTrue(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled());
+        assertTrue(sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled());
+
+        RegionFactory regionFactory = sessionFactory.getServiceRegistry().requireService(RegionFactory.class);
+        CacheManager cacheManager = assertInstanceOf(JCacheRegionFactory.class, regionFactory).getCacheManager();
+        assertEquals(20000, maximumSize(cacheManager, "users"));
+        assertEquals(5000, maximumSize(cacheManager, "doctors"));
+        assertEquals(500, maximumSize(cacheManager, "departments"));
+        assertEquals(20000, maximumSize(cacheManager, "default-query-results-region"));
+    }
+
+    @Test
+    void repeatedLoginLookupIsServedWithoutSql() {
+        Long id = save("cacheduser");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userRepository.findByUsername("cacheduser").orElseThrow();
+
+        statistics.clear();
+        assertEquals("Cached User", userRepository.findByUsername("cacheduser").orElseThrow().getFullName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // Loading by id (every appointment's patient, every doctor's user) comes from the users region
+        assertTrue(userRepository.findById(id).isPresent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void passwordUpgradeOnlyReplacesThatUsersCacheEntry() {
+        Long other = save("cachedother");
+        Long upgraded = save("cacheduser");
+        userRepository.findById(other).orElseThrow(); // in the users region now
+        HospitalUserDetails details = (HospitalUserDetails) userDetailsService.loadUserByUsername("cacheduser");
+
+        userDetailsService.updatePassword(details, "rehashed");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertTrue(userRepository.findById(other).isPresent());
+        assertEquals("rehashed", userRepository.findById(upgraded).orElseThrow().getPassword());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private Long save(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setFullName("Cached User");
+        user.setRole(User.Role.PATIENT);
+        return userRepository.save(user).getId();
+    }
+
+    private static long maximumSize(CacheManager cacheManager, String region) {
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(region);
+        assertNotNull(cache, region);
+        @SuppressWarnings("unchecked")
+        CaffeineConfiguration<Object, Object> configuration = cache.getConfiguration(CaffeineConfiguration.class);
+        return configuration.getMaximumSize().orElseThrow();
+    }
+}
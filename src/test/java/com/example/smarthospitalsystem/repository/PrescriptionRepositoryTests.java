@@ -0,0 +1,102 @@
+package com.example.smarthospitalsystem.repository;
+
+import com.example.smarthospitalsystem.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Medical history must cost one SQL statement, no matter how many prescriptions a patient has
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PrescriptionRepositoryTests {
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findByPatientUsernameRunsOneStatementRegardlessOfRowCount() {
+        Doctor doctor = doctor("cardiodoc", "Cardiology");
+        Doctor otherDoctor = doctor("neurodoc", "Neurology");
+        User few = user("fewvisits", User.Role.PATIENT);
+        User many = user("manyvisits", User.Role.PATIENT);
+        prescriptions(few, doctor, 1);
+        prescriptions(many, doctor, 6);
+        prescriptions(many, otherDoctor, 6);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        List<Prescription> single = prescriptionRepository.findByPatientUsername("fewvisits");
+        assertEquals(1, single.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        statistics.clear();
+        List<Prescription> lots = prescriptionRepository.findByPatientUsername("manyvisits");
+        assertEquals(12, lots.size());
+        // Touch everything the JSON response contains
+        lots.forEach(p -> {
+            assertNotNull(p.getAppointment().getPatient().getFullName());
+            assertNotNull(p.getAppointment().getDoctor().getUser().getFullName());
+            assertNotNull(p.getAppointment().getDoctor().getDepartment().getName());
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setFullName("Test " + role.name().toLowerCase());
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Doctor doctor(String username, String departmentName) {
+        Department department = new Department();
+        department.setName(departmentName);
+        entityManager.persist(department);
+
+        Doctor doctor = new Doctor();
+        doctor.setUser(user(username, User.Role.DOCTOR));
+        doctor.setDepartment(department);
+        doctor.setSpecialization(departmentName);
+        entityManager.persist(doctor);
+        return doctor;
+    }
+
+    private void prescriptions(User patient, Doctor doctor, int count) {
+        for (int i = 0; i < count; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setPatient(patient);
+            appointment.setDoctor(doctor);
+            appointment.setAppointmentTime(LocalDateTime.of(2025, 3, 1, 9, 0).plusDays(i));
+            appointment.setStatus(Appointment.Status.COMPLETED);
+            entityManager.persist(appointment);
+
+            Prescription prescription = new Prescription();
+            prescription.setAppointment(appointment);
+            prescription.setMedicineName("Aspirin");
+            prescription.setDosage("1x daily");
+            prescription.setDiagnosis("Headache");
+            entityManager.persist(prescription);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.model.*;
+import com.example.smarthospitalsystem.repository.AppointmentRepository;
+import com.example.smarthospitalsystem.repository.DepartmentRepository;
+import com.example.smarthospitalsystem.repository.DoctorRepository;
+import com.example.smarthospitalsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Status changes reach the slot index and the agenda only once they are committed.
+// Not transactional, so the test decides what commits and what rolls back (and cleans up after itself).
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AppointmentService.class, DoctorSlotIndex.class, DoctorAgenda.class, AppointmentAfterCommitTests.Metrics.class})
+class AppointmentAfterCommitTests {
+
+    private static final LocalDateTime TOMORROW_NINE = LocalDate.now().plusDays(1).atTime(9, 0);
+
+    @Autowired private AppointmentService appointmentService;
+    @Autowired private DoctorSlotIndex slotIndex;
+    @Autowired private DoctorAgenda doctorAgenda;
+    @Autowired private AppointmentRepository appointmentRepository;
+    @Autowired private DoctorRepository doctorRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User patient;
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp() {
+        patient = userRepository.save(user("commitpatient", User.Role.PATIENT));
+        Department department = new Department();
+        department.setName("After commit");
+        department = departmentRepository.save(department);
+        Doctor newDoctor = new Doctor();
+        newDoctor.setUser(userRepository.save(user("commitdoctor", User.Role.DOCTOR)));
+        newDoctor.setDepartment(department);
+        newDoctor.setSpecialization("Cardiology");
+        doctor = doctorRepository.save(newDoctor);
+        doctorAgenda.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll(appointmentRepository.findByDoctorId(doctor.getId()));
+        doctorRepository.delete(doctor);
+        departmentRepository.delete(doctor.getDepartment());
+        userRepository.delete(doctor.getUser());
+        userRepository.delete(patient);
+    }
+
+    @Test
+    void rolledBackRejectionKeepsTheSlotAndTheAgenda() {
+        Long id = appointmentService.bookAppointment(patient.getId(), doctor.getId(), TOMORROW_NINE).getId();
+        assertEquals(Appointment.Status.PENDING, agendaStatus(id));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            appointmentService.updateStatus(id, Appointment.Status.REJECTED);
+            tx.setRollbackOnly(); // e.g. a later step of the same request failed
+        });
+
+        assertEquals(Appointment.Status.PENDING, appointmentRepository.findById(id).orElseThrow().getStatus());
+        assertEquals(Appointment.Status.PENDING, agendaStatus(id));
+        assertFalse(slotIndex.tryReserve(doctor.getId(), TOMORROW_NINE)); // still taken
+    }
+
+    @Test
+    void committedChangesFreeTheSlotAndUpdateTheAgenda() {
+        Long first = appointmentService.bookAppointment(patient.getId(), doctor.getId(), TOMORROW_NINE).getId();
+        Long second = appointmentService.bookAppointment(patient.getId(), doctor.getId(), TOMORROW_NINE.plusHours(1)).getId();
+
+        appointmentService.updateStatus(first, Appointment.Status.REJECTED);
+        appointmentService.bulkUpdateStatus(doctor.getId(), Appointment.Status.REJECTED, Map.of(second, 0L));
+
+        assertEquals(Appointment.Status.REJECTED, agendaStatus(first));
+        assertEquals(Appointment.Status.REJECTED, agendaStatus(second));
+        assertTrue(slotIndex.tryReserve(doctor.getId(), TOMORROW_NINE));
+        assertTrue(slotIndex.tryReserve(doctor.getId(), TOMORROW_NINE.plusHours(1)));
+    }
+
+    private Appointment.Status agendaStatus(Long id) {
+        List<AppointmentSummary> agenda = doctorAgenda.getAgenda(doctor.getId());
+        return agenda.stream().filter(a -> a.id().equals(id)).findFirst().orElseThrow().status();
+    }
+
+    private static User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setFullName("Test " + role.name().toLowerCase());
+        user.setRole(role);
+        return user;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.model.*;
+import com.example.smarthospitalsystem.repository.ArchivedAppointmentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"app.archive.batch-size=2", "app.archive.pause=0ms"})
+@Import({AppointmentArchiver.class, AppointmentArchiverTests.Metrics.class})
+class AppointmentArchiverTests {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private AppointmentArchiver archiver;
+
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void movesOnlyOldClosedAppointmentsAndKeepsThemQueryable() {
+        User patient = user("archpatient", User.Role.PATIENT);
+        Doctor doctor = doctor();
+        for (int i = 0; i < 3; i++) {
+            prescribe(appointment(patient, doctor, CUTOFF.minusDays(10 + i), Appointment.Status.COMPLETED));
+        }
+        appointment(patient, doctor, CUTOFF.minusDays(5), Appointment.Status.REJECTED);
+        Appointment stillPending = appointment(patient, doctor, CUTOFF.minusDays(5), Appointment.Status.PENDING);
+        Appointment recent = appointment(patient, doctor, CUTOFF.plusDays(5), Appointment.Status.COMPLETED);
+        entityManager.flush();
+        entityManager.clear();
+
+        // 4 rows with a batch size of 2: two full batches and an empty one
+        assertEquals(4, archiver.archiveBefore(CUTOFF));
+
+        List<Long> hot = entityManager.createQuery("SELECT a.id FROM Appointment a ORDER BY a.id", Long.class).getResultList();
+        assertEquals(List.of(stillPending.getId(), recent.getId()), hot);
+        assertEquals(0L, entityManager.createQuery("SELECT COUNT(p) FROM Prescription p", Long.class).getSingleResult());
+
+        List<AppointmentSummary> archived = archivedAppointmentRepository.findPatientPage(patient.getId(),
+                EnumSet.allOf(Appointment.Status.class), LocalDateTime.of(1970, 1, 1, 0, 0), 0L, LocalDateTime.of(9999, 12, 31, 0, 0), Limit.of(10));
+        assertEquals(4, archived.size());
+        assertEquals("Test doctor", archived.get(0).doctorName());
+        assertEquals(3, archivedAppointmentRepository.findPrescriptionsByPatientId(patient.getId()).size());
+
+        assertEquals(0, archiver.archiveBefore(CUTOFF));
+    }
+
+    private User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setFullName("Test " + role.name().toLowerCase());
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Doctor doctor() {
+        Department department = new Department();
+        department.setName("Cardiology");
+        entityManager.persist(department);
+
+        Doctor doctor = new Doctor();
+        doctor.setUser(user("archdoctor", User.Role.DOCTOR));
+        doctor.setDepartment(department);
+        doctor.setSpecialization("Cardiology");
+        entityManager.persist(doctor);
+        return doctor;
+    }
+
+    private Appointment appointment(User patient, Doctor doctor, LocalDateTime time, Appointment.Status status) {
+        Appointment appointment = new Appointment();
+        appointment.setPatient(patient);
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentTime(time);
+        appointment.setStatus(status);
+        entityManager.persist(appointment);
+        return appointment;
+    }
+
+    private void prescribe(Appointment appointment) {
+        Prescription prescription = new Prescription();
+        prescription.setAppointment(appointment);
+        prescription.setMedicineName("Aspirin");
+        prescription.setDosage("1x daily");
+        prescription.setDiagnosis("Headache");
+        entityManager.persist(prescription);
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.StatusChangeResult;
+import com.example.smarthospitalsystem.dto.StatusChangeResult.Outcome;
+import com.example.smarthospitalsystem.model.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@RecordApplicationEvents
+@Import({AppointmentService.class, DoctorSlotIndex.class, AppointmentBulkStatusTests.Metrics.class})
+class AppointmentBulkStatusTests {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void oneResultPerIdAndOnlyValidCurrentRowsChange() {
+        User patient = user("bulkpatient", User.Role.PATIENT);
+        Doctor doctor = doctor("bulkdoctor");
+        Doctor otherDoctor = doctor("otherdoctor");
+        Appointment pending = appointment(patient, doctor, NINE, Appointment.Status.PENDING);
+        Appointment stale = appointment(patient, doctor, NINE.plusHours(1), Appointment.Status.PENDING);
+        Appointment completed = appointment(patient, doctor, NINE.plusHours(2), Appointment.Status.COMPLETED);
+        Appointment approved = appointment(patient, doctor, NINE.plusHours(3), Appointment.Status.APPROVED);
+        Appointment foreign = appointment(patient, otherDoctor, NINE, Appointment.Status.PENDING);
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<Long, Long> request = new LinkedHashMap<>();
+        request.put(pending.getId(), null);
+        request.put(stale.getId(), 7L); // the client saw an older version
+        request.put(completed.getId(), null);
+        request.put(approved.getId(), 0L);
+        request.put(foreign.getId(), null);
+        request.put(-1L, null);
+
+        List<StatusChangeResult> results = appointmentService.bulkUpdateStatus(doctor.getId(), Appointment.Status.APPROVED, request);
+
+        assertEquals(List.of(
+                new StatusChangeResult(pending.getId(), Outcome.UPDATED, Appointment.Status.APPROVED, 1L),
+                new StatusChangeResult(stale.getId(), Outcome.CONFLICT, Appointment.Status.PENDING, 0L),
+                new StatusChangeResult(completed.getId(), Outcome.INVALID_TRANSITION, Appointment.Status.COMPLETED, 0L),
+                new StatusChangeResult(approved.getId(), Outcome.UNCHANGED, Appointment.Status.APPROVED, 0L),
+                new StatusChangeResult(foreign.getId(), Outcome.NOT_FOUND, null, null),
+                new StatusChangeResult(-1L, Outcome.NOT_FOUND, null, null)), results);
+
+        entityManager.clear();
+        assertEquals(Appointment.Status.APPROVED, entityManager.find(Appointment.class, pending.getId()).getStatus());
+        assertEquals(Appointment.Status.PENDING, entityManager.find(Appointment.class, stale.getId()).getStatus());
+        assertEquals(Appointment.Status.PENDING, entityManager.find(Appointment.class, foreign.getId()).getStatus());
+
+        List<AppointmentChangedEvent> changed = events.stream(AppointmentChangedEvent.class).toList();
+        assertEquals(1, changed.size());
+        assertEquals(pending.getId(), changed.get(0).appointment().id());
+        assertEquals(Appointment.Status.PENDING, changed.get(0).previousStatus());
+    }
+
+    @Test
+    void singleStatusChangeIsLimitedToTheDoctorsOwnAppointments() {
+        User patient = user("onepatient", User.Role.PATIENT);
+        Doctor doctor = doctor("onedoctor");
+        Doctor otherDoctor = doctor("onerival");
+        Appointment own = appointment(patient, doctor, NINE, Appointment.Status.PENDING);
+        Appointment foreign = appointment(patient, otherDoctor, NINE, Appointment.Status.PENDING);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThrows(AccessDeniedException.class,
+                () -> appointmentService.updateStatus(doctor.getId(), foreign.getId(), Appointment.Status.REJECTED));
+        assertEquals(Appointment.Status.APPROVED,
+                appointmentService.updateStatus(doctor.getId(), own.getId(), Appointment.Status.APPROVED).getStatus());
+
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(Appointment.Status.PENDING, entityManager.find(Appointment.class, foreign.getId()).getStatus());
+        assertEquals(1, events.stream(AppointmentChangedEvent.class).count());
+    }
+
+    private User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setFullName("Test " + role.name().toLowerCase());
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Doctor doctor(String username) {
+        Department department = new Department();
+        department.setName("Cardiology " + username);
+        entityManager.persist(department);
+
+        Doctor doctor = new Doctor();
+        doctor.setUser(user(username, User.Role.DOCTOR));
+        doctor.setDepartment(department);
+        doctor.setSpecialization("Cardiology");
+        entityManager.persist(doctor);
+        return doctor;
+    }
+
+    private Appointment appointment(User patient, Doctor doctor, LocalDateTime time, Appointment.Status status) {
+        Appointment appointment = new Appointment();
+        appointment.setPatient(patient);
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentTime(time);
+        appointment.setStatus(status);
+        entityManager.persist(appointment);
+        return appointment;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
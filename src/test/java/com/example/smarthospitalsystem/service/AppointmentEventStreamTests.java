@@ -0,0 +1,273 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.model.Appointment;
+import com.example.smarthospitalsystem.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentEventStreamTests {
+
+    private static final Pattern ID = Pattern.compile("^id:(\\S+)$", Pattern.MULTILINE);
+    private static final Pattern NAME = Pattern.compile("^event:(\\S+)$", Pattern.MULTILINE);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AppointmentEventStream stream;
+
+    private final HospitalUserDetails patient = new HospitalUserDetails(10L, "patient", "", User.Role.PATIENT, null);
+    private final HospitalUserDetails doctor = new HospitalUserDetails(20L, "doctor", "", User.Role.DOCTOR, 7L);
+
+    @AfterEach
+    void shutDown() {
+        if (stream != null) {
+            stream.shutdown();
+        }
+    }
+
+    private AppointmentEventStream stream(int replayBuffer) {
+        return stream(replayBuffer, 10_000); // queues never overflow in these tests
+    }
+
+    private AppointmentEventStream stream(int replayBuffer, int maxQueued) {
+        stream = new AppointmentEventStream(meterRegistry, replayBuffer, Duration.ofMinutes(5), maxQueued) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return new RecordingEmitter();
+            }
+        };
+        return stream;
+    }
+
+    @Test
+    void liveEventsReachOnlyTheirAudienceInOrder() {
+        stream(16);
+        RecordingEmitter patientStream = subscribe(patient, null);
+        RecordingEmitter doctorStream = subscribe(doctor, null);
+
+        stream.onAppointmentChanged(changed(1L, 10L, 7L, true));
+        stream.onAppointmentChanged(changed(2L, 11L, 8L, true)); // someone else's
+        stream.onPrescriptionCreated(new PrescriptionCreatedEvent(5L, summary(1L, 10L, 7L)));
+
+        awaitEvents(patientStream, 2);
+        awaitEvents(doctorStream, 2);
+        assertEquals(List.of("appointment.created", "prescription.created"), patientStream.names());
+        assertEquals(List.of(1L, 3L), patientStream.sequences());
+        assertEquals(patientStream.ids(), doctorStream.ids());
+    }
+
+    @Test
+    void resumeReplaysOnlyWhatTheUserMissed() {
+        stream(16);
+        RecordingEmitter first = subscribe(patient, null);
+        for (long id = 1; id <= 3; id++) {
+            stream.onAppointmentChanged(changed(id, 10L, 7L, false));
+            stream.onAppointmentChanged(changed(100 + id, 11L, 7L, false)); // doctor 7's other patient
+        }
+        awaitEvents(first, 3);
+
+        RecordingEmitter resumed = subscribe(patient, first.ids().get(0));
+
+        awaitEvents(resumed, 2);
+        assertEquals(first.ids().subList(1, 3), resumed.ids());
+        assertFalse(resumed.names().contains(AppointmentEventStream.RESYNC));
+    }
+
+    @Test
+    void idFromAnEarlierStartAsksForResync() {
+        stream(16);
+        stream.onAppointmentChanged(changed(1L, 10L, 7L, false));
+
+        RecordingEmitter resumed = subscribe(patient, "k3x9-1");
+
+        awaitEvents(resumed, 1);
+        assertEquals(List.of(AppointmentEventStream.RESYNC), resumed.names());
+    }
+
+    @Test
+    void idOlderThanTheBufferAsksForResync() {
+        stream(2);
+        RecordingEmitter first = subscribe(patient, null);
+        for (long id = 1; id <= 4; id++) {
+            stream.onAppointmentChanged(changed(id, 10L, 7L, false));
+        }
+        awaitEvents(first, 4);
+
+        RecordingEmitter tooOld = subscribe(patient, first.ids().get(0));   // events 2..4 wanted, only 3..4 kept
+        RecordingEmitter recent = subscribe(patient, first.ids().get(1));   // events 3..4 wanted
+
+        awaitEvents(tooOld, 1);
+        awaitEvents(recent, 2);
+        assertEquals(List.of(AppointmentEventStream.RESYNC), tooOld.names());
+        assertEquals(first.ids().subList(2, 4), recent.ids());
+    }
+
+    @Test
+    void eventsPublishedWhileResumingArriveOnceAndInOrder() throws Exception {
+        int events = 2000;
+        stream(4096);
+        RecordingEmitter first = subscribe(patient, null);
+        stream.onAppointmentChanged(changed(1L, 10L, 7L, false));
+        awaitEvents(first, 1);
+        String resumeFrom = first.ids().get(0);
+
+        // Live events keep coming while clients resume from the first one
+        Thread publisher = Thread.ofPlatform().start(() -> {
+            for (long id = 2; id <= events; id++) {
+                stream.onAppointmentChanged(changed(id, 10L, 7L, false));
+            }
+        });
+        List<RecordingEmitter> resumed = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            resumed.add(subscribe(patient, resumeFrom));
+        }
+        publisher.join();
+
+        for (RecordingEmitter emitter : resumed) {
+            awaitEvents(emitter, events - 1);
+            List<Long> sequences = emitter.sequences();
+            for (int i = 0; i < sequences.size(); i++) {
+                assertEquals(i + 2L, sequences.get(i)); // 2, 3, 4, ... with no gap, repeat or swap
+            }
+        }
+    }
+
+    @Test
+    void connectionWhoseClientWentAwayIsDropped() {
+        stream(16);
+        RecordingEmitter broken = subscribe(patient, null);
+        broken.failing = true;
+        assertEquals(1, meterRegistry.get("events.connections").gauge().value());
+
+        stream.onAppointmentChanged(changed(1L, 10L, 7L, false));
+
+        await(() -> meterRegistry.get("events.connections").gauge().value() == 0);
+        assertEquals(1, meterRegistry.counter("events.dropped").count());
+        stream.onAppointmentChanged(changed(2L, 10L, 7L, false));
+        stream.heartbeat();
+        assertEquals(1, broken.attempts);
+    }
+
+    @Test
+    void clientThatFallsTooFarBehindGetsResyncInsteadOfTheBacklog() {
+        stream(16, 4);
+        RecordingEmitter slow = subscribe(patient, null);
+        slow.gate = new CountDownLatch(1);
+        stream.onAppointmentChanged(changed(1L, 10L, 7L, false));
+        await(() -> slow.attempts == 1); // stuck sending event 1
+
+        for (long id = 2; id <= 8; id++) { // 2..5 fill the queue, 6 overflows it
+            stream.onAppointmentChanged(changed(id, 10L, 7L, false));
+        }
+        stream.heartbeat();
+        slow.gate.countDown();
+
+        awaitEvents(slow, 5);
+        assertEquals(List.of("appointment.status", AppointmentEventStream.RESYNC, "appointment.status",
+                "appointment.status", "appointment.status"), slow.names());
+        assertEquals(Arrays.asList(1L, null, 6L, 7L, 8L), slow.ids().stream()
+                .map(id -> id == null ? null : Long.parseLong(id.substring(id.indexOf('-') + 1))).toList());
+        assertEquals(1, meterRegistry.counter("events.overflow").count());
+        assertEquals(1, meterRegistry.get("events.connections").gauge().value());
+    }
+
+    private RecordingEmitter subscribe(HospitalUserDetails user, String lastEventId) {
+        SseEmitter emitter = stream.subscribe(user, lastEventId);
+        return assertInstanceOf(RecordingEmitter.class, emitter);
+    }
+
+    private static AppointmentChangedEvent changed(Long appointmentId, Long patientId, Long doctorId, boolean created) {
+        return new AppointmentChangedEvent(summary(appointmentId, patientId, doctorId),
+                created ? null : Appointment.Status.PENDING, created);
+    }
+
+    private static AppointmentSummary summary(Long appointmentId, Long patientId, Long doctorId) {
+        return new AppointmentSummary(appointmentId, LocalDateTime.of(2030, 1, 2, 9, 0), Appointment.Status.APPROVED,
+                patientId, "Patient", doctorId, "Doctor", "Cardiology", "Cardiology");
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) {
+        await(() -> emitter.size() >= count);
+        assertEquals(count, emitter.size());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.onSpinWait();
+        }
+    }
+
+    // Records "<event name> <id>" for every event sent, instead of writing to a response
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String[]> events = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean failing;
+        private volatile int attempts;
+        private volatile CountDownLatch gate; // when set, sends wait until it opens
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempts++;
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String s) {
+                    text.append(s);
+                }
+            }
+            Matcher name = NAME.matcher(text);
+            if (name.find()) { // heartbeats have no name and are not recorded
+                Matcher id = ID.matcher(text);
+                events.add(new String[]{name.group(1), id.find() ? id.group(1) : null});
+            }
+        }
+
+        int size() {
+            return events.size();
+        }
+
+        List<String> names() {
+            synchronized (events) {
+                return events.stream().map(e -> e[0]).toList();
+            }
+        }
+
+        List<String> ids() {
+            synchronized (events) {
+                return events.stream().map(e -> e[1]).toList();
+            }
+        }
+
+        List<Long> sequences() {
+            return ids().stream().map(id -> Long.parseLong(id.substring(id.indexOf('-') + 1))).toList();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentCursor;
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.dto.CursorPage;
+import com.example.smarthospitalsystem.dto.UserSummary;
+import com.example.smarthospitalsystem.exception.InvalidRequestException;
+import com.example.smarthospitalsystem.model.*;
+import com.example.smarthospitalsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({AppointmentService.class, DoctorSlotIndex.class, AppointmentPagingTests.Metrics.class})
+class AppointmentPagingTests {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void cursorRoundTripsAndRejectsGarbage() {
+        AppointmentCursor cursor = new AppointmentCursor(NINE.plusSeconds(30), 42L);
+
+        assertEquals(cursor, AppointmentCursor.decode(cursor.encode()));
+        assertThrows(InvalidRequestException.class, () -> AppointmentCursor.decode("not a cursor"));
+        assertThrows(InvalidRequestException.class, () -> AppointmentCursor.decode("MjAzMC0wMy0wNFQwOTowMA")); // no id
+    }
+
+    @Test
+    void pagesWalkEqualTimesByIdWithoutGapsOrRepeats() {
+        User patient = user("pagepatient", User.Role.PATIENT);
+        Doctor doctor = doctor("pagedoctor");
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(appointment(patient, doctor, NINE).getId()); // five rows at the same time
+        }
+        expected.add(appointment(patient, doctor, NINE.plusHours(1)).getId());
+        Long earlier = appointment(patient, doctor, NINE.minusHours(1)).getId();
+        expected.add(0, earlier);
+        entityManager.flush();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<AppointmentSummary> page =
+                    appointmentService.getPatientAppointmentPage(patient.getId(), null, null, null, cursor, 2);
+            assertTrue(page.items().size() <= 2);
+            page.items().forEach(a -> seen.add(a.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, seen);
+        assertEquals(4, pages);
+        assertEquals(expected, doctorIds(doctor, 3));
+    }
+
+    @Test
+    void fullLastPageHasNoNextCursor() {
+        User patient = user("lastpatient", User.Role.PATIENT);
+        Doctor doctor = doctor("lastdoctor");
+        for (int i = 0; i < 4; i++) {
+            appointment(patient, doctor, NINE.plusHours(i));
+        }
+        entityManager.flush();
+
+        CursorPage<AppointmentSummary> first = appointmentService.getPatientAppointmentPage(patient.getId(),
+                null, null, null, null, 2);
+        CursorPage<AppointmentSummary> last = appointmentService.getPatientAppointmentPage(patient.getId(),
+                null, null, null, first.nextCursor(), 2);
+        CursorPage<AppointmentSummary> everything = appointmentService.getPatientAppointmentPage(patient.getId(),
+                null, null, null, null, 4);
+
+        assertNotNull(first.nextCursor());
+        assertEquals(2, last.items().size());
+        assertNull(last.nextCursor());
+        assertEquals(4, everything.items().size());
+        assertNull(everything.nextCursor());
+    }
+
+    @Test
+    void filtersApplyBeforeTheLimit() {
+        User patient = user("filterpatient", User.Role.PATIENT);
+        Doctor doctor = doctor("filterdoctor");
+        Appointment approved = appointment(patient, doctor, NINE);
+        approved.setStatus(Appointment.Status.APPROVED);
+        appointment(patient, doctor, NINE.plusHours(1));
+        Appointment later = appointment(patient, doctor, NINE.plusDays(1));
+        entityManager.flush();
+
+        CursorPage<AppointmentSummary> pending = appointmentService.getPatientAppointmentPage(patient.getId(),
+                null, null, EnumSet.of(Appointment.Status.PENDING), null, 1);
+        CursorPage<AppointmentSummary> fromTomorrow = appointmentService.getPatientAppointmentPage(patient.getId(),
+                NINE.plusDays(1), null, null, null, 10);
+
+        assertEquals(Appointment.Status.PENDING, pending.items().get(0).status());
+        assertNotNull(pending.nextCursor());
+        assertEquals(List.of(later.getId()), fromTomorrow.items().stream().map(AppointmentSummary::id).toList());
+        assertNull(fromTomorrow.nextCursor());
+    }
+
+    @Test
+    void userPageStartsAfterTheGivenId() {
+        User a = user("pagea", User.Role.PATIENT);
+        User b = user("pageb", User.Role.ADMIN);
+        User c = user("pagec", User.Role.PATIENT);
+        entityManager.flush();
+
+        List<UserSummary> patients = userRepository.findPage(a.getId() - 1, EnumSet.of(User.Role.PATIENT), Limit.of(10));
+        List<UserSummary> afterA = userRepository.findPage(a.getId(), EnumSet.allOf(User.Role.class), Limit.of(1));
+
+        assertEquals(List.of(a.getId(), c.getId()), patients.stream().map(UserSummary::id).toList());
+        assertEquals(List.of(b.getId()), afterA.stream().map(UserSummary::id).toList());
+    }
+
+    private List<Long> doctorIds(Doctor doctor, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<AppointmentSummary> page =
+                    appointmentService.getDoctorAppointmentPage(doctor.getId(), null, null, null, cursor, size);
+            page.items().forEach(a -> ids.add(a.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setFullName("Test " + role.name().toLowerCase());
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Doctor doctor(String username) {
+        Department department = new Department();
+        department.setName("Cardiology " + username);
+        entityManager.persist(department);
+
+        Doctor doctor = new Doctor();
+        doctor.setUser(user(username, User.Role.DOCTOR));
+        doctor.setDepartment(department);
+        doctor.setSpecialization("Cardiology");
+        entityManager.persist(doctor);
+        return doctor;
+    }
+
+    private Appointment appointment(User patient, Doctor doctor, LocalDateTime time) {
+        Appointment appointment = new Appointment();
+        appointment.setPatient(patient);
+        appointment.setDoctor(doctor);
+        appointment.setAppointmentTime(time);
+        appointment.setStatus(Appointment.Status.PENDING);
+        entityManager.persist(appointment);
+        return appointment;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AuditEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTests {
+
+    @TempDir
+    Path directory;
+
+    // Tiny segments so a handful of records already rotates files
+    private AuditLog open() throws Exception {
+        return new AuditLog(directory, DataSize.ofBytes(256), false, 1024, 16, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void recordsAreReplayedInOrderAcrossSegments() throws Exception {
+        AuditLog auditLog = open();
+        Instant start = Instant.now();
+        for (long i = 1; i <= 50; i++) {
+            auditLog.record("test.event", i, "n=" + i);
+        }
+        assertTrue(auditLog.flush(Duration.ofSeconds(5)));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() > 1);
+        }
+
+        List<AuditEntry> entries = new ArrayList<>();
+        auditLog.replay(1, entries::add);
+        assertEquals(50, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            AuditEntry entry = entries.get(i);
+            assertEquals(i + 1, entry.sequence());
+            assertEquals("system", entry.actor());
+            assertEquals(i + 1L, entry.subjectId());
+        }
+
+        List<AuditEntry> tail = new ArrayList<>();
+        auditLog.replay(40, tail::add);
+        assertEquals(40, tail.get(0).sequence());
+        assertEquals(11, tail.size());
+
+        assertEquals(10, auditLog.scan(start.minusSeconds(1), Instant.now().plusSeconds(1), 10).size());
+        assertTrue(auditLog.scan(Instant.now().plusSeconds(60), Instant.now().plusSeconds(120), 10).isEmpty());
+        auditLog.close();
+    }
+
+    @Test
+    void tornTailIsCutOffOnRestart() throws Exception {
+        AuditLog auditLog = open();
+        for (long i = 1; i <= 20; i++) {
+            auditLog.record("test.event", i, "n=" + i);
+        }
+        assertTrue(auditLog.flush(Duration.ofSeconds(5)));
+        auditLog.close();
+
+        // A crash halfway through a write: a length prefix and part of a record
+        Path last;
+        try (Stream<Path> files = Files.list(directory)) {
+            last = files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+        Files.write(last, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        AuditLog reopened = open();
+        List<AuditEntry> entries = new ArrayList<>();
+        reopened.replay(1, entries::add);
+        assertEquals(20, entries.size());
+
+        reopened.record("after.restart", null, "x");
+        assertTrue(reopened.flush(Duration.ofSeconds(5)));
+        List<AuditEntry> next = new ArrayList<>();
+        reopened.replay(21, next::add);
+        assertEquals(1, next.size());
+        assertEquals(21, next.get(0).sequence());
+        assertNull(next.get(0).subjectId());
+        reopened.close();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.config.BoundedPasswordEncoder;
+import com.example.smarthospitalsystem.dto.ImportReport;
+import com.example.smarthospitalsystem.dto.ImportReport.RowError;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Chunks of two rows, so a handful of lines spans several uniqueness queries, batches and transactions.
+// Not transactional: every chunk really commits or rolls back (the tables are emptied after each test).
+@DataJpaTest(properties = "app.import.chunk-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BulkImportService.class, EntityCacheService.class, BulkImportServiceTests.Beans.class})
+class BulkImportServiceTests {
+
+    @Autowired
+    private BulkImportService importService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("DELETE FROM doctors", Map.of());
+        jdbc.update("DELETE FROM users", Map.of());
+        jdbc.update("DELETE FROM departments", Map.of());
+    }
+
+    @Test
+    void patientsAreImportedChunkByChunkAndDuplicatesInTheFileRejected() throws IOException {
+        ImportReport report = importCsv(BulkImportService.Kind.PATIENTS, """
+                username,password,fullName
+                alice01,Secret#123,Alice Smith
+                bob0002,Secret#123,Bob Jones
+                carol03,weak,Carol King
+                ALICE01,Secret#123,Alice Again
+                dave004,Secret#123,Dave Brown
+                """);
+
+        assertEquals(5, report.rows());
+        assertEquals(3, report.imported());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(4L, 5L), report.errors().stream().map(RowError::line).toList());
+        assertTrue(report.errors().get(0).message().startsWith("Weak Password"));
+        assertEquals("Duplicate username in this file", report.errors().get(1).message()); // across chunks
+        assertEquals(List.of("alice01", "bob0002", "dave004"), usernames());
+        assertEquals(List.of("PATIENT"), jdbc.queryForList("SELECT DISTINCT role FROM users", Map.of(), String.class));
+        String hash = jdbc.queryForObject("SELECT password FROM users WHERE username = 'dave004'", Map.of(), String.class);
+        assertTrue(hash.startsWith("$2a$04$"));
+    }
+
+    @Test
+    void existingUsernamesAreRejectedWithoutFailingTheRestOfTheChunk() throws IOException {
+        jdbc.update("INSERT INTO users (username, password, full_name, role) VALUES ('taken01', 'x', 'Already Here', 'PATIENT')",
+                Map.of());
+
+        ImportReport report = importCsv(BulkImportService.Kind.PATIENTS, """
+                username,password,fullName
+                taken01,Secret#123,Someone Else
+                fresh01,Secret#123,New Person
+                """);
+
+        assertEquals(1, report.imported());
+        assertEquals(List.of(new RowError(2, "Username is already taken!")), report.errors());
+        assertEquals(List.of("fresh01", "taken01"), usernames());
+        assertEquals("Already Here",
+                jdbc.queryForObject("SELECT full_name FROM users WHERE username = 'taken01'", Map.of(), String.class));
+    }
+
+    @Test
+    void doctorsFindTheirDepartmentByNameOrId() throws IOException {
+        importCsv(BulkImportService.Kind.DEPARTMENTS, """
+                name,description
+                Cardiology,Heart
+                Neurology,Brain
+                cardiology,Duplicate
+                """);
+        Long neurology = jdbc.queryForObject("SELECT id FROM departments WHERE name = 'Neurology'", Map.of(), Long.class);
+
+        ImportReport report = importCsv(BulkImportService.Kind.DOCTORS, """
+                username,password,fullName,specialization,department,departmentId
+                heart01,Secret#123,Dr Heart,Cardiologist,CARDIOLOGY,
+                brain01,Secret#123,Dr Brain,Neurologist,,%d
+                lost001,Secret#123,Dr Lost,Surgeon,Surgery,
+                nowhere,Secret#123,Dr Nowhere,Surgeon,,999999
+                """.formatted(neurology));
+
+        assertEquals(2, report.imported());
+        assertEquals(List.of(new RowError(4, "Department not found"), new RowError(5, "Department not found")),
+                report.errors());
+        assertEquals(Map.of("heart01", "Cardiology", "brain01", "Neurology"), doctorDepartments());
+    }
+
+    @Test
+    void databaseErrorRollsBackItsWholeChunkOnly() throws IOException {
+        jdbc.update("INSERT INTO departments (name, description) VALUES ('Cardiology', 'Heart')", Map.of());
+        String tooLong = "x".repeat(300); // passes validation, the column holds 255
+
+        ImportReport report = importCsv(BulkImportService.Kind.DOCTORS, """
+                username,password,fullName,specialization,department
+                first01,Secret#123,Dr First,Cardiologist,Cardiology
+                second1,Secret#123,Dr Second,Cardiologist,Cardiology
+                third01,Secret#123,Dr Third,Cardiologist,Cardiology
+                fourth1,Secret#123,Dr Fourth,%s,Cardiology
+                fifth01,Secret#123,Dr Fifth,Cardiologist,Cardiology
+                """.formatted(tooLong));
+
+        assertEquals(3, report.imported());
+        assertEquals(List.of(4L, 5L), report.errors().stream().map(RowError::line).toList());
+        assertTrue(report.errors().get(0).message().startsWith("Rejected by the database, chunk rolled back"));
+        // The users of the failed chunk were inserted before the doctor rows failed, and rolled back with them
+        assertEquals(List.of("fifth01", "first01", "second1"), usernames());
+        assertEquals(3, doctorDepartments().size());
+    }
+
+    private ImportReport importCsv(BulkImportService.Kind kind, String csv) throws IOException {
+        return importService.importRows(kind,
+                ImportRowReader.csv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private List<String> usernames() {
+        return jdbc.queryForList("SELECT username FROM users ORDER BY username", Map.of(), String.class);
+    }
+
+    private Map<String, String> doctorDepartments() {
+        Map<String, String> departments = new HashMap<>();
+        jdbc.query("SELECT u.username, d.name FROM doctors doc JOIN users u ON u.id = doc.user_id " +
+                "JOIN departments d ON d.id = doc.department_id", Map.of(),
+                rs -> {
+                    departments.put(rs.getString(1), rs.getString(2));
+                });
+        return departments;
+    }
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+            return new BoundedPasswordEncoder(4, 2, 100, Duration.ofSeconds(10), meterRegistry);
+        }
+
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.exception.InvalidRequestException;
+import com.example.smarthospitalsystem.exception.ServiceNotReadyException;
+import com.example.smarthospitalsystem.exception.SlotUnavailableException;
+import com.example.smarthospitalsystem.model.*;
+import com.example.smarthospitalsystem.repository.AppointmentRepository;
+import com.example.smarthospitalsystem.repository.DepartmentRepository;
+import com.example.smarthospitalsystem.repository.DoctorRepository;
+import com.example.smarthospitalsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Many bookings of the same slot at once, against the database. "Nodes" are extra AppointmentService
+// instances with their own slot index, like several app servers sharing one database.
+// Not transactional: every booking really commits (and the tables are cleaned up after each test).
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AppointmentService.class, DoctorSlotIndex.class, ConcurrentBookingTests.Metrics.class})
+class ConcurrentBookingTests {
+
+    private static final LocalDateTime TOMORROW_NINE = LocalDate.now().plusDays(1).atTime(9, 0);
+    private static final int BOOKINGS = 32;
+
+    @Autowired private AppointmentService appointmentService;
+    @Autowired private AppointmentRepository appointmentRepository;
+    @Autowired private DoctorRepository doctorRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AutowireCapableBeanFactory beanFactory;
+
+    private final List<User> patients = new ArrayList<>();
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            patients.add(userRepository.save(user("stresspatient" + i, User.Role.PATIENT)));
+        }
+        Department department = new Department();
+        department.setName("Stress");
+        department = departmentRepository.save(department);
+        Doctor newDoctor = new Doctor();
+        newDoctor.setUser(userRepository.save(user("stressdoctor", User.Role.DOCTOR)));
+        newDoctor.setDepartment(department);
+        newDoctor.setSpecialization("Cardiology");
+        doctor = doctorRepository.save(newDoctor);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll(appointmentRepository.findByDoctorId(doctor.getId()));
+        doctorRepository.delete(doctor);
+        departmentRepository.delete(doctor.getDepartment());
+        userRepository.delete(doctor.getUser());
+        userRepository.deleteAll(patients);
+    }
+
+    @Test
+    void parallelBookingsOnOneNodeStoreOneAppointment() throws Exception {
+        List<Object> outcomes = bookInParallel(List.of(appointmentService), TOMORROW_NINE);
+
+        assertEquals(1, outcomes.stream().filter(Appointment.class::isInstance).count());
+        assertEquals(BOOKINGS - 1, outcomes.stream().filter(SlotUnavailableException.class::isInstance).count());
+        assertEquals(1, activeAppointments());
+    }
+
+    @Test
+    void parallelBookingsOnSeveralNodesStoreOneAppointment() throws Exception {
+        List<AppointmentService> nodes = List.of(node(), node(), node(), node());
+
+        // Same slot, different minutes: only the database sees that they collide
+        List<Object> outcomes = bookInParallel(nodes, TOMORROW_NINE.plusMinutes(10));
+        outcomes.addAll(bookInParallel(nodes, TOMORROW_NINE));
+
+        assertEquals(1, outcomes.stream().filter(Appointment.class::isInstance).count());
+        assertEquals(2 * BOOKINGS - 1, outcomes.stream().filter(SlotUnavailableException.class::isInstance).count());
+        assertEquals(1, activeAppointments());
+    }
+
+    @Test
+    void rejectedAppointmentFreesTheSlotInTheDatabase() {
+        AppointmentService otherNode = node();
+        Long id = appointmentService.bookAppointment(patients.get(0).getId(), doctor.getId(), TOMORROW_NINE).getId();
+        assertThrows(SlotUnavailableException.class,
+                () -> otherNode.bookAppointment(patients.get(1).getId(), doctor.getId(), TOMORROW_NINE));
+
+        appointmentService.updateStatus(id, Appointment.Status.REJECTED);
+
+        assertNotNull(otherNode.bookAppointment(patients.get(1).getId(), doctor.getId(), TOMORROW_NINE).getId());
+        assertEquals(1, activeAppointments());
+    }
+
+    @Test
+    void missingOrPastTimesAndBookingsBeforeTheRebuildAreRefused() {
+        Long patientId = patients.get(0).getId();
+        assertThrows(InvalidRequestException.class, () -> appointmentService.bookAppointment(patientId, doctor.getId(), null));
+        assertThrows(InvalidRequestException.class, () -> appointmentService.bookAppointment(patientId, null, TOMORROW_NINE));
+        assertThrows(InvalidRequestException.class,
+                () -> appointmentService.bookAppointment(patientId, doctor.getId(), LocalDateTime.now().minusDays(1)));
+
+        AppointmentService starting = beanFactory.createBean(AppointmentService.class);
+        assertThrows(ServiceNotReadyException.class, () -> starting.bookAppointment(patientId, doctor.getId(), TOMORROW_NINE));
+        assertEquals(0, activeAppointments());
+    }
+
+    // All bookings start together, spread round-robin over the nodes; returns the saved appointment or the exception
+    private List<Object> bookInParallel(List<AppointmentService> nodes, LocalDateTime time) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(BOOKINGS)) {
+            for (int i = 0; i < BOOKINGS; i++) {
+                AppointmentService node = nodes.get(i % nodes.size());
+                Long patientId = patients.get(i % patients.size()).getId();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return node.bookAppointment(patientId, doctor.getId(), time);
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            start.countDown();
+        }
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            outcomes.add(future.get());
+        }
+        return outcomes;
+    }
+
+    // Another app server: same database, its own (freshly rebuilt) slot index
+    private AppointmentService node() {
+        AppointmentService node = beanFactory.createBean(AppointmentService.class);
+        AppointmentService target = AopTestUtils.getTargetObject(node);
+        ReflectionTestUtils.setField(target, "slotIndex", new DoctorSlotIndex(30));
+        node.rebuildSlotIndex();
+        return node;
+    }
+
+    private long activeAppointments() {
+        return appointmentRepository.findByDoctorId(doctor.getId()).stream()
+                .filter(a -> a.getStatus() != Appointment.Status.REJECTED).count();
+    }
+
+    private static User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setFullName("Test " + role.name().toLowerCase());
+        user.setRole(role);
+        return user;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.dto.AppointmentSummary;
+import com.example.smarthospitalsystem.model.Appointment;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoctorAgendaTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 7);
+
+    @Test
+    void updatesKeepEachAgendaOrderedAndInsideTheWindow() {
+        DoctorAgenda agenda = new DoctorAgenda(null, 2);
+        agenda.load(TODAY, List.of(
+                row(1L, 1L, TODAY.atTime(9, 0), Appointment.Status.APPROVED),
+                row(2L, 1L, TODAY.atTime(11, 0), Appointment.Status.PENDING)));
+
+        agenda.apply(row(3L, 1L, TODAY.atTime(10, 0), Appointment.Status.PENDING));      // booked in between
+        agenda.apply(row(2L, 1L, TODAY.atTime(11, 0), Appointment.Status.COMPLETED));    // status change replaces
+        agenda.apply(row(4L, 1L, TODAY.plusDays(2).atTime(9, 0), Appointment.Status.PENDING)); // beyond the window
+        agenda.apply(row(5L, 2L, TODAY.plusDays(1).atTime(8, 0), Appointment.Status.PENDING));
+
+        List<AppointmentSummary> doctor1 = agenda.getAgenda(1L);
+        assertEquals(List.of(1L, 3L, 2L), doctor1.stream().map(AppointmentSummary::id).toList());
+        assertEquals(Appointment.Status.COMPLETED, doctor1.get(2).status());
+        assertThrows(UnsupportedOperationException.class, () -> doctor1.add(doctor1.get(0)));
+
+        assertEquals(3, agenda.getAgenda(1L, TODAY).size());
+        assertTrue(agenda.getAgenda(1L, TODAY.plusDays(1)).isEmpty());
+        assertEquals(1, agenda.getAgenda(2L, TODAY.plusDays(1)).size());
+        assertTrue(agenda.getAgenda(99L).isEmpty());
+    }
+
+    private static AppointmentSummary row(Long id, Long doctorId, LocalDateTime time, Appointment.Status status) {
+        return new AppointmentSummary(id, time, status, 10L, "Patient", doctorId, "Dr. " + doctorId, "General", "Clinic");
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.smarthospitalsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoctorSlotIndexTests {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    @Test
+    void sameSlotIsRejectedUntilReleased() {
+        DoctorSlotIndex index = new DoctorSlotIndex(30);
+
+        assertTrue(index.tryReserve(1L, MORNING));
+        assertFalse(index.tryReserve(1L, MORNING.plusMinutes(10))); // same 08:00-08:30 slot
+        assertTrue(index.tryReserve(1L, MORNING.plusMinutes(30)));
+        assertTrue(index.tryReserve(2L, MORNING)); // other doctor is independent
+
+        index.release(1L, MORNING);
+        assertTrue(index.tryReserve(1L, MORNING));
+    }
+
+    @Test
+    void concurrentBookingsGetExactlyOneWinnerPerSlot() throws Exception {
+        DoctorSlotIndex index = new DoctorSlotIndex(15);
+        int doctors = 8;
+        int slots = 96; // a full day of 15 minute slots
+        int threads = 32;
+        AtomicIntegerArray winners = new AtomicIntegerArray(doctors * slots);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int d = 0; d < doctors; d++) {
+                    for (int s = 0; s < slots; s++) {
+                        if (index.tryReserve((long) d, MORNING.withHour(0).plusMinutes(s * 15L))) {
+                            winners.incrementAndGet(d * slots + s);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        for (int i = 0; i < winners.length(); i++) {
+            assertEquals(1, winners.get(i), "slot " + i + " was booked " + winners.get(i) + " times");
+        }
+    }
+
+    @Test
+    void evictBeforeDropsPastDaysOnly() {
+        DoctorSlotIndex index = new DoctorSlotIndex(30);
+        index.tryReserve(1L, MORNING.minusDays(1));
+        index.tryReserve(1L, MORNING);
+
+        index.evictBefore(MORNING.toLocalDate());
+
+        assertFalse(index.isReserved(1L, MORNING.minusDays(1)));
+        assertTrue(index.isReserved(1L, MORNING));
+    }
+}
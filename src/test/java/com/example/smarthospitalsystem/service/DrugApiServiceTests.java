@@ -0,0 +1,59 @@
+package com.example.smarthospitalsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrugApiServiceTests {
+
+    @Test
+    void labelParserReadsOnlyTheFirstIndicationsAndTruncatesThem() {
+        String label = "{\"meta\":{\"results\":{\"total\":2}},\"results\":[{\"boxed_warning\":[\"Keep out of reach\"],"
+                + "\"indications_and_usage\":[\"" + "Relief of pain. ".repeat(30) + "\"],\"openfda\":{\"brand_name\":[\"Aspirin\"]}},"
+                + "{\"indications_and_usage\":[\"Second label\"]}]}";
+
+        DrugLookup lookup = DrugApiService.parseLabel(label);
+
+        assertEquals(DrugLookup.Outcome.FOUND, lookup.outcome());
+        assertEquals(203, lookup.info().length());
+        assertTrue(lookup.info().startsWith("Relief of pain."));
+        assertTrue(lookup.info().endsWith("..."));
+    }
+
+    @Test
+    void labelParserDistinguishesEmptyResultsMissingSectionAndGarbage() {
+        assertEquals(DrugLookup.Outcome.NOT_FOUND, DrugApiService.parseLabel("{\"results\":[]}").outcome());
+        assertEquals("Drug found, but no description available.",
+                DrugApiService.parseLabel("{\"results\":[{\"purpose\":[\"Pain reliever\"]}]}").info());
+        assertEquals(DrugLookup.Outcome.ERROR, DrugApiService.parseLabel("<html>busy</html>").outcome());
+    }
+
+    @Test
+    void searchParserTakesTheFirstBrandNameOfEachLabel() throws IOException {
+        String response = "{\"results\":[{\"openfda\":{\"generic_name\":[\"ASPIRIN\"],\"brand_name\":[\"Bayer\",\"Bayer Extra\"]}},"
+                + "{\"description\":[\"no openfda block\"]},"
+                + "{\"openfda\":{\"brand_name\":[\"Ecotrin\"]},\"spl_id\":[\"x\"]}]}";
+
+        DrugSearchPage page = DrugApiService.parseSearchPage(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("Bayer", "Ecotrin"), page.names());
+        assertTrue(page.complete());
+    }
+
+    @Test
+    void searchPageIsCompleteOnlyWhenOpenFdaReturnedFewerLabelsThanTheLimit() throws IOException {
+        String label = "{\"openfda\":{\"brand_name\":[\"Amoxil\"]}}";
+        String unnamed = "{\"openfda\":{\"generic_name\":[\"AMOXICILLIN\"]}}";
+        String full = "{\"results\":[" + String.join(",", label, label, unnamed, label, label) + "]}";
+
+        DrugSearchPage page = DrugApiService.parseSearchPage(new ByteArrayInputStream(full.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4, page.names().size());
+        assertFalse(page.complete());
+    }
+}
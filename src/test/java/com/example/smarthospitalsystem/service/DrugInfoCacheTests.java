@@ -0,0 +1,150 @@
+package com.example.smarthospitalsystem.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the cache against a local stub of api.fda.gov
+class DrugInfoCacheTests {
+
+    private HttpServer server;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final AtomicReference<String> aspirinText = new AtomicReference<>("Pain relief v1");
+    private FdaCircuitBreaker circuitBreaker;
+    private DrugApiService drugApiService;
+    private final SimpleMeterRegistry cacheMeters = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/drug/label.json", exchange -> {
+            upstreamCalls.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            int status;
+            String body;
+            if (query.contains("Aspirin")) {
+                status = 200;
+                body = "{\"results\":[{\"indications_and_usage\":[\"" + aspirinText.get() + "\"]}]}";
+            } else if (query.contains("Broken")) {
+                status = 500;
+                body = "{}";
+            } else {
+                status = 404;
+                body = "{\"error\":{\"code\":\"NOT_FOUND\",\"message\":\"No matches found!\"}}";
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new FdaCircuitBreaker(5, Duration.ofMinutes(1), meterRegistry);
+        drugApiService = new DrugApiService(new RestTemplate(), "http://127.0.0.1:" + server.getAddress().getPort(),
+                circuitBreaker, meterRegistry);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromCache() {
+        DrugInfoCache cache = newCache(100, Duration.ofMinutes(5), Duration.ofMinutes(5), Duration.ofMinutes(5));
+
+        assertEquals("Pain relief v1", cache.getDrugInfo("Aspirin"));
+        assertEquals("Pain relief v1", cache.getDrugInfo(" aspirin "));
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+        assertEquals(1, cacheMeters.get("fda.cache.requests").tag("outcome", "hit").functionCounter().count());
+        assertEquals(1, cacheMeters.get("fda.cache.requests").tag("outcome", "miss").functionCounter().count());
+        assertEquals(0, cacheMeters.get("fda.cache.requests").tag("outcome", "stale").functionCounter().count());
+        assertEquals(1, cacheMeters.get("fda.cache.size").gauge().value());
+    }
+
+    @Test
+    void notFoundAnswersAreCachedButFailuresAreNot() {
+        DrugInfoCache cache = newCache(100, Duration.ofMinutes(5), Duration.ofMinutes(5), Duration.ofMinutes(5));
+
+        assertEquals(DrugLookup.Outcome.NOT_FOUND, cache.lookup("Unobtainium").outcome());
+        assertEquals(DrugLookup.Outcome.NOT_FOUND, cache.lookup("Unobtainium").outcome());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1L, cache.stats().get("negativeHits"));
+
+        assertEquals(DrugLookup.Outcome.ERROR, cache.lookup("Broken").outcome());
+        assertEquals(DrugLookup.Outcome.ERROR, cache.lookup("Broken").outcome());
+        assertEquals(3, upstreamCalls.get());
+        assertEquals(2L, cache.stats().get("loadFailures"));
+    }
+
+    @Test
+    void staleEntryIsServedWhileRefreshingInBackground() throws InterruptedException {
+        DrugInfoCache cache = newCache(100, Duration.ofMillis(50), Duration.ofMillis(50), Duration.ofMinutes(5));
+        assertEquals("Pain relief v1", cache.getDrugInfo("Aspirin"));
+
+        Thread.sleep(100);
+        aspirinText.set("Pain relief v2");
+
+        // Expired but inside the stale window: old value right away, refresh happens behind it
+        assertEquals("Pain relief v1", cache.getDrugInfo("Aspirin"));
+        assertEquals(1L, cache.stats().get("staleHits"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!cache.getDrugInfo("Aspirin").equals("Pain relief v2") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Pain relief v2", cache.getDrugInfo("Aspirin"));
+        cache.shutdown();
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedWhenFull() {
+        DrugInfoCache cache = newCache(2, Duration.ofMinutes(5), Duration.ofMinutes(5), Duration.ofMinutes(5));
+
+        cache.lookup("Aspirin");
+        cache.lookup("Unknown1");
+        cache.lookup("Aspirin");
+        cache.lookup("Unknown2"); // evicts Unknown1, Aspirin was used more recently
+
+        assertEquals(1L, cache.stats().get("evictions"));
+        assertEquals(2L, cache.stats().get("size"));
+        assertEquals(1, cacheMeters.get("fda.cache.evictions").functionCounter().count());
+        int before = upstreamCalls.get();
+        cache.lookup("Aspirin");
+        assertEquals(before, upstreamCalls.get());
+    }
+
+    @Test
+    void breakerStopsCallingOpenFdaAfterRepeatedFailures() {
+        DrugInfoCache cache = newCache(100, Duration.ofMinutes(5), Duration.ofMinutes(5), Duration.ofMinutes(5));
+
+        for (int i = 0; i < 5; i++) {
+            cache.lookup("Broken");
+        }
+        assertEquals(FdaCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        assertEquals(DrugLookup.Outcome.ERROR, cache.lookup("Aspirin").outcome());
+        assertEquals(5, upstreamCalls.get());
+    }
+
+    private DrugInfoCache newCache(int maxEntries, Duration ttl, Duration negativeTtl, Duration staleWindow) {
+        return new DrugInfoCache(drugApiService, maxEntries, ttl, negativeTtl, staleWindow, cacheMeters);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.smarthospitalsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrugNameIndexTests {
+
+    @TempDir
+    Path dir;
+
+    private DrugNameIndex index;
+
+    @BeforeEach
+    void buildIndex() throws IOException {
+        DrugNameIndexBuilder builder = new DrugNameIndexBuilder();
+        builder.addLabels(json("""
+                {"meta": {"results": {"total": 4}},
+                 "results": [
+                   {"openfda": {"brand_name": ["Amoxil"], "generic_name": ["AMOXICILLIN"]}, "id": "1"},
+                   {"openfda": {"brand_name": ["Amoxicillin"], "generic_name": ["Amoxicillin"]}},
+                   {"openfda": {"generic_name": ["AMOXICILLIN", "CLAVULANATE"]}},
+                   {"set_id": "no openfda block"}
+                 ]}
+                """));
+        builder.addName("Amlodipine");
+        builder.addName("Amlodipine");
+        builder.addName("Aspirin");
+        builder.addName("Ibuprofen");
+        builder.addName("Ámbar"); // sorts after every ASCII key
+        Path file = dir.resolve("drug-names.idx");
+        builder.write(file);
+
+        index = new DrugNameIndex(file.toString());
+        index.load();
+    }
+
+    @Test
+    void prefixMatchesAreCaseInsensitiveAndMostCommonFirst() {
+        assertTrue(index.isLoaded());
+        assertEquals(7, index.size());
+
+        // amoxicillin: 3 labels (counted once per label), amlodipine: 2, amoxil: 1
+        assertEquals(List.of("AMOXICILLIN", "Amlodipine", "Amoxil"), index.search("am", 10));
+        assertEquals(List.of("AMOXICILLIN", "Amoxil"), index.search("  AMOX ", 10));
+        assertEquals(List.of("Aspirin"), index.search("asp", 10));
+        assertEquals(List.of("Ámbar"), index.search("ÁM", 10));
+    }
+
+    @Test
+    void limitKeepsTheBestRankedAndBreaksTiesAlphabetically() {
+        assertEquals(List.of("AMOXICILLIN"), index.search("a", 1));
+        assertEquals(List.of("AMOXICILLIN", "Amlodipine", "Amoxil"), index.search("a", 3)); // ties at 1: amoxil < aspirin
+        assertEquals(List.of("AMOXICILLIN", "Amlodipine", "Amoxil", "Aspirin"), index.search("a", 10));
+    }
+
+    @Test
+    void noMatchOrNoIndexGivesAnEmptyList() throws IOException {
+        assertEquals(List.of(), index.search("zz", 10));
+        assertEquals(List.of(), index.search("amoxicillinx", 10));
+        assertEquals(List.of(), index.search("  ", 10));
+        assertEquals(List.of(), index.search("am", 0));
+
+        DrugNameIndex missing = new DrugNameIndex(dir.resolve("missing.idx").toString());
+        missing.load();
+        assertFalse(missing.isLoaded());
+        assertEquals(List.of(), missing.search("am", 10));
+
+        Path garbage = Files.writeString(dir.resolve("garbage.idx"), "not an index at all");
+        DrugNameIndex corrupt = new DrugNameIndex(garbage.toString());
+        corrupt.load();
+        assertFalse(corrupt.isLoaded());
+    }
+
+    private static ByteArrayInputStream json(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.smarthospitalsystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DrugSearchCoalescerTests {
+
+    private final DrugApiService drugApiService = mock(DrugApiService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DrugSearchCoalescer coalescer(Duration debounce) {
+        return new DrugSearchCoalescer(drugApiService, 100, Duration.ofMinutes(10), debounce, meterRegistry);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("drugs.search.remote", "outcome", outcome).count();
+    }
+
+    @Test
+    void concurrentIdenticalSearchesShareOneUpstreamCall() throws Exception {
+        CountDownLatch upstreamStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(drugApiService.searchDrugPage("Amox")).thenAnswer(invocation -> {
+            upstreamStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new DrugSearchPage(List.of("Amoxil", "Amoxicillin"), true);
+        });
+        DrugSearchCoalescer coalescer = coalescer(Duration.ZERO);
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<String>> leader = pool.submit(() -> coalescer.search("Amox", null));
+            assertTrue(upstreamStarted.await(5, TimeUnit.SECONDS));
+            List<Future<List<String>>> followers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                followers.add(pool.submit(() -> coalescer.search("amox ", null)));
+            }
+            while (count("coalesced") < 8) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals(List.of("Amoxil", "Amoxicillin"), leader.get());
+            for (Future<List<String>> follower : followers) {
+                assertEquals(List.of("Amoxil", "Amoxicillin"), follower.get());
+            }
+        }
+        verify(drugApiService, times(1)).searchDrugPage(anyString());
+        assertEquals(1, count("upstream"));
+    }
+
+    @Test
+    void completeShorterAnswerIsFilteredForLongerQueries() {
+        when(drugApiService.searchDrugPage("amo"))
+                .thenReturn(new DrugSearchPage(List.of("Amoxil", "Augmentin Amoxi-Clav", "Amodiaquine"), true));
+        DrugSearchCoalescer coalescer = coalescer(Duration.ZERO);
+
+        coalescer.search("amo", null);
+        assertEquals(List.of("Amoxil", "Augmentin Amoxi-Clav"), coalescer.search("amoxi", null));
+        assertEquals(List.of(), coalescer.search("amoz", null));
+
+        verify(drugApiService, times(1)).searchDrugPage(anyString());
+        assertEquals(2, count("prefix"));
+    }
+
+    @Test
+    void fullAnswerIsNotUsedForLongerQueries() {
+        // A full page of labels where one had no brand name: fewer names, but still not complete
+        when(drugApiService.searchDrugPage(anyString())).thenReturn(new DrugSearchPage(List.of("A1", "A2", "A3", "A4"), false));
+        DrugSearchCoalescer coalescer = coalescer(Duration.ZERO);
+
+        coalescer.search("a", null);
+        coalescer.search("a1", null);
+
+        verify(drugApiService, times(2)).searchDrugPage(anyString());
+        assertEquals(0, count("prefix"));
+    }
+
+    @Test
+    void userTypingAgainDropsTheOlderSearch() throws Exception {
+        when(drugApiService.searchDrugPage(anyString())).thenReturn(new DrugSearchPage(List.of("Ibuprofen"), true));
+        DrugSearchCoalescer coalescer = coalescer(Duration.ofMillis(300));
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<String>> older = pool.submit(() -> coalescer.search("ib", 7L));
+            Thread.sleep(50);
+            Future<List<String>> newer = pool.submit(() -> coalescer.search("ibu", 7L));
+
+            assertEquals(List.of(), older.get());
+            assertEquals(List.of("Ibuprofen"), newer.get());
+        }
+        verify(drugApiService, never()).searchDrugPage("ib");
+        assertEquals(1, count("superseded"));
+    }
+
+    @Test
+    void platformThreadsAreNotParkedForTheDebounce() {
+        when(drugApiService.searchDrugPage(anyString())).thenReturn(new DrugSearchPage(List.of("Ibuprofen"), true));
+        DrugSearchCoalescer coalescer = coalescer(Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        assertEquals(List.of("Ibuprofen"), coalescer.search("ibu", 7L)); // JUnit runs on a platform thread
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+    }
+}
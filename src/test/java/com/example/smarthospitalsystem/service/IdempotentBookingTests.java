@@ -0,0 +1,138 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.exception.IdempotencyKeyReusedException;
+import com.example.smarthospitalsystem.model.*;
+import com.example.smarthospitalsystem.repository.AppointmentRepository;
+import com.example.smarthospitalsystem.repository.DepartmentRepository;
+import com.example.smarthospitalsystem.repository.DoctorRepository;
+import com.example.smarthospitalsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The same booking fired many times at once with one Idempotency-Key: one appointment, one answer for all.
+// Not transactional, so every thread really commits (and the test cleans up after itself).
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AppointmentService.class, DoctorSlotIndex.class, IdempotencyStore.class, IdempotentBookingTests.Metrics.class})
+class IdempotentBookingTests {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2030, 5, 6, 10, 0);
+    private static final int REQUESTS = 32;
+
+    @Autowired private AppointmentService appointmentService;
+    @Autowired private IdempotencyStore idempotencyStore;
+    @Autowired private AppointmentRepository appointmentRepository;
+    @Autowired private DoctorRepository doctorRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private User patient;
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp() {
+        patient = userRepository.save(user("idempatient", User.Role.PATIENT));
+        Department department = new Department();
+        department.setName("Idempotency");
+        department = departmentRepository.save(department);
+        Doctor newDoctor = new Doctor();
+        newDoctor.setUser(userRepository.save(user("idemdoctor", User.Role.DOCTOR)));
+        newDoctor.setDepartment(department);
+        newDoctor.setSpecialization("Cardiology");
+        doctor = doctorRepository.save(newDoctor);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll(appointmentRepository.findByDoctorId(doctor.getId()));
+        doctorRepository.delete(doctor);
+        departmentRepository.delete(doctor.getDepartment());
+        userRepository.delete(doctor.getUser());
+        userRepository.delete(patient);
+    }
+
+    @Test
+    void parallelRetriesCreateOneAppointment() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<IdempotencyStore.Result<Appointment>>> answers = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                answers.add(pool.submit(() -> {
+                    start.await();
+                    return book("retry-key-1", doctor.getId());
+                }));
+            }
+            start.countDown();
+
+            Long bookedId = null;
+            int firstAnswers = 0;
+            for (Future<IdempotencyStore.Result<Appointment>> answer : answers) {
+                IdempotencyStore.Result<Appointment> result = answer.get(); // no SlotUnavailableException for anyone
+                if (!result.replayed()) {
+                    firstAnswers++;
+                }
+                if (bookedId == null) {
+                    bookedId = result.value().getId();
+                }
+                assertEquals(bookedId, result.value().getId());
+            }
+            assertEquals(1, firstAnswers);
+        }
+
+        assertEquals(1, appointmentRepository.findByDoctorId(doctor.getId()).size());
+        assertEquals(REQUESTS - 1, meterRegistry.find("idempotency.requests").counters().stream()
+                .filter(c -> !"new".equals(c.getId().getTag("outcome")))
+                .mapToDouble(c -> c.count()).sum());
+
+        // A later retry is answered from memory, a different request under the same key is refused
+        assertTrue(book("retry-key-1", doctor.getId()).replayed());
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyStore.execute("book:" + patient.getId(),
+                "retry-key-1", List.of(doctor.getId(), SLOT.plusHours(1)),
+                () -> appointmentService.bookAppointment(patient.getId(), doctor.getId(), SLOT.plusHours(1))));
+        assertEquals(1, appointmentRepository.findByDoctorId(doctor.getId()).size());
+    }
+
+    private IdempotencyStore.Result<Appointment> book(String key, Long doctorId) {
+        // Same request fields on every call, like the controller's AppointmentRequest
+        return idempotencyStore.execute("book:" + patient.getId(), key, List.of(doctorId, SLOT),
+                () -> appointmentService.bookAppointment(patient.getId(), doctorId, SLOT));
+    }
+
+    private static User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setFullName("Test " + role.name().toLowerCase());
+        user.setRole(role);
+        return user;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
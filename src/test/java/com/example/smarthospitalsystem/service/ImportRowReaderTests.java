@@ -0,0 +1,66 @@
+package com.example.smarthospitalsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportRowReaderTests {
+
+    @Test
+    void csvHandlesQuotesEmbeddedCommasAndLineBreaks() throws IOException {
+        ImportRowReader reader = ImportRowReader.csv(stream("""
+                Username,Password,FullName
+                alice1,Secret#123,"Smith, Alice"
+
+                bob22,"Pa""ss#1Word","Bob
+                Jones"
+                carol3,Only2Columns
+                """));
+
+        ImportRowReader.Row alice = reader.next();
+        assertEquals(2, alice.line());
+        assertEquals("Smith, Alice", alice.get("fullName"));
+
+        ImportRowReader.Row bob = reader.next();
+        assertEquals(4, bob.line());
+        assertEquals("Pa\"ss#1Word", bob.get("password"));
+        assertEquals("Bob\nJones", bob.get("fullname"));
+
+        ImportRowReader.Row carol = reader.next();
+        assertEquals(6, carol.line());
+        assertNotNull(carol.error());
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    void ndjsonReportsBadLinesAndKeepsGoing() throws IOException {
+        ImportRowReader reader = ImportRowReader.ndjson(stream("""
+                {"username":"alice1","password":"Secret#123","fullName":"Alice Smith","extra":{"ignored":true}}
+                {"username": broken
+                {"name":"Cardiology","description":null}
+                """));
+
+        ImportRowReader.Row alice = reader.next();
+        assertEquals("Alice Smith", alice.get("FULLNAME"));
+        assertNull(alice.get("extra"));
+
+        ImportRowReader.Row broken = reader.next();
+        assertEquals(2, broken.line());
+        assertNotNull(broken.error());
+
+        ImportRowReader.Row department = reader.next();
+        assertEquals("Cardiology", department.get("name"));
+        assertNull(department.get("description"));
+
+        assertNull(reader.next());
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
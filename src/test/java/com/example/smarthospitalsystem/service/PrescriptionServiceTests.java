@@ -0,0 +1,146 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.model.*;
+import com.example.smarthospitalsystem.repository.PrescriptionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PrescriptionServiceTests {
+
+    private final AppointmentService appointmentService = mock(AppointmentService.class);
+    private final PrescriptionRepository prescriptionRepository = mock(PrescriptionRepository.class);
+    private final DrugInfoCache drugInfoCache = mock(DrugInfoCache.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Every notes update, with the thread that wrote it
+    private final BlockingQueue<NotesUpdate> updates = new LinkedBlockingQueue<>();
+    private final CountDownLatch fdaAnswers = new CountDownLatch(1);
+    private PrescriptionService service;
+
+    @BeforeEach
+    void setUp() {
+        when(appointmentService.updateStatus(anyLong(), eq(Appointment.Status.COMPLETED))).thenReturn(appointment());
+        AtomicLong ids = new AtomicLong();
+        when(prescriptionRepository.save(any(Prescription.class))).thenAnswer(invocation -> {
+            Prescription prescription = invocation.getArgument(0);
+            prescription.setId(ids.incrementAndGet());
+            return prescription;
+        });
+        when(prescriptionRepository.updateNotes(anyLong(), anyString())).thenAnswer(invocation -> {
+            updates.add(new NotesUpdate(invocation.getArgument(0), invocation.getArgument(1), Thread.currentThread()));
+            return 1;
+        });
+        when(drugInfoCache.lookup("Amoxicillin")).thenAnswer(invocation -> {
+            fdaAnswers.await(5, TimeUnit.SECONDS);
+            return DrugLookup.found("Treats bacterial infections.");
+        });
+    }
+
+    @AfterEach
+    void shutDown() {
+        fdaAnswers.countDown();
+        service.shutdown();
+    }
+
+    private PrescriptionService service(int maxConcurrentLookups, Duration lookupTimeout) {
+        service = new PrescriptionService(appointmentService, prescriptionRepository, drugInfoCache, meterRegistry,
+                mock(ApplicationEventPublisher.class), maxConcurrentLookups, lookupTimeout);
+        return service;
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("fda.enrichment", "outcome", outcome).count();
+    }
+
+    @Test
+    void prescriptionIsSavedBeforeTheLookupAndEnrichedAfterIt() throws Exception {
+        service(2, Duration.ofSeconds(5));
+
+        Prescription saved = service.createPrescription(1L, "Infection", "Amoxicillin", "500mg");
+
+        assertEquals(PrescriptionService.PENDING_NOTES, saved.getNotes());
+        assertTrue(updates.isEmpty()); // the FDA call has not answered yet
+        fdaAnswers.countDown();
+        NotesUpdate update = updates.poll(5, TimeUnit.SECONDS);
+        assertNotNull(update);
+        assertEquals(saved.getId(), update.id());
+        assertEquals("FDA INFO: Treats bacterial infections.", update.notes());
+        assertTrue(update.thread().isVirtual());
+        assertEquals(1, count("found"));
+    }
+
+    @Test
+    void fullBulkheadSkipsTheLookupWithoutBlockingTheRequest() throws Exception {
+        service(1, Duration.ofSeconds(5));
+
+        service.createPrescription(1L, "Infection", "Amoxicillin", "500mg"); // holds the only slot
+        Prescription skipped = service.createPrescription(2L, "Infection", "Amoxicillin", "250mg");
+
+        NotesUpdate update = updates.poll(5, TimeUnit.SECONDS);
+        assertNotNull(update);
+        assertEquals(skipped.getId(), update.id());
+        assertEquals("FDA INFO: lookup skipped, service busy.", update.notes());
+        assertNotSame(Thread.currentThread(), update.thread());
+        assertEquals(1, count("rejected"));
+        verify(drugInfoCache, times(1)).lookup(anyString());
+
+        fdaAnswers.countDown();
+        assertEquals("FDA INFO: Treats bacterial infections.", updates.poll(5, TimeUnit.SECONDS).notes());
+    }
+
+    @Test
+    void slowLookupTimesOutButKeepsItsSlotUntilItEnds() throws Exception {
+        service(1, Duration.ofMillis(50));
+
+        Prescription saved = service.createPrescription(1L, "Infection", "Amoxicillin", "500mg");
+
+        NotesUpdate update = updates.poll(5, TimeUnit.SECONDS);
+        assertNotNull(update);
+        assertEquals(saved.getId(), update.id());
+        assertEquals("FDA INFO: FDA lookup timed out.", update.notes());
+        assertEquals(1, count("timeout"));
+        // The abandoned call is still running, so the bulkhead stays full until it returns
+        assertEquals(0, meterRegistry.get("fda.bulkhead.available").gauge().value());
+
+        fdaAnswers.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("fda.bulkhead.available").gauge().value() == 0) {
+            assertTrue(System.nanoTime() < deadline, "slot never released");
+            Thread.sleep(5);
+        }
+        assertEquals(0, count("found")); // the late answer is dropped
+    }
+
+    private static Appointment appointment() {
+        User patient = new User();
+        patient.setFullName("Test patient");
+        User doctorUser = new User();
+        doctorUser.setFullName("Test doctor");
+        Department department = new Department();
+        department.setName("Cardiology");
+        Doctor doctor = new Doctor();
+        doctor.setUser(doctorUser);
+        doctor.setDepartment(department);
+        Appointment appointment = new Appointment();
+        appointment.setPatient(patient);
+        appointment.setDoctor(doctor);
+        appointment.setStatus(Appointment.Status.COMPLETED);
+        return appointment;
+    }
+
+    private record NotesUpdate(Long id, String notes, Thread thread) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.smarthospitalsystem.service;
+
+import com.example.smarthospitalsystem.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTokenServiceTests {
+
+    private static final String KEY_1 = "k1:" + Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String KEY_2 = "k2:" + Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final HospitalUserDetails doctor = new HospitalUserDetails(42L, "dr.house", "", User.Role.DOCTOR, 7L);
+
+    private static SessionTokenService service(Duration accessTtl, String... keys) {
+        return new SessionTokenService(true, List.of(keys), accessTtl, Duration.ofHours(12), false, "Lax");
+    }
+
+    @Test
+    void accessTokenCarriesThePrincipal() {
+        SessionTokenService tokens = service(Duration.ofMinutes(15), KEY_1);
+
+        HospitalUserDetails user = tokens.verifyAccess(tokens.issueAccess(doctor));
+
+        assertNotNull(user);
+        assertEquals(42L, user.getUserId());
+        assertEquals("dr.house", user.getUsername());
+        assertEquals(User.Role.DOCTOR, user.getRole());
+        assertEquals(7L, user.getDoctorId());
+    }
+
+    @Test
+    void tamperedExpiredAndRefreshTokensAreRefused() {
+        SessionTokenService tokens = service(Duration.ofMinutes(15), KEY_1);
+        String token = tokens.issueAccess(doctor);
+        String[] parts = token.split("\\.");
+        String admin = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                new String(Base64.getUrlDecoder().decode(parts[1])).replace("DOCTOR", "ADMIN").getBytes());
+
+        assertNull(tokens.verifyAccess(parts[0] + "." + admin + "." + parts[2]));
+        assertNull(tokens.verifyAccess(token.substring(0, token.length() - 2)));
+        assertNull(tokens.verifyAccess(tokens.issueRefresh(42L, "$2a$10$hash")));
+        assertNull(service(Duration.ZERO, KEY_1).verifyAccess(service(Duration.ZERO, KEY_1).issueAccess(doctor)));
+    }
+
+    @Test
+    void rotatedKeyStillVerifiesUntilRemoved() {
+        String oldToken = service(Duration.ofMinutes(15), KEY_1).issueAccess(doctor);
+
+        SessionTokenService rotated = service(Duration.ofMinutes(15), KEY_2, KEY_1);
+        assertNotNull(rotated.verifyAccess(oldToken));
+        assertTrue(rotated.issueAccess(doctor).startsWith("k2."));
+
+        assertNull(service(Duration.ofMinutes(15), KEY_2).verifyAccess(oldToken));
+    }
+
+    @Test
+    void revokedUserNeedsANewToken() throws InterruptedException {
+        SessionTokenService tokens = service(Duration.ofMinutes(15), KEY_1);
+        String token = tokens.issueAccess(doctor);
+
+        tokens.revoke(42L);
+        Thread.sleep(2);
+
+        assertNull(tokens.verifyAccess(token));
+        assertNotNull(tokens.verifyAccess(tokens.issueAccess(doctor)));
+    }
+
+    @Test
+    void refreshCookieIsBoundToTheHashThePrincipalWasLoadedWith() {
+        SessionTokenService tokens = service(Duration.ofMinutes(15), KEY_1);
+        String fingerprint = SessionTokenService.fingerprint("$2a$12$upgraded");
+        HospitalUserDetails loaded = new HospitalUserDetails(42L, "dr.house", "$2a$12$upgraded", User.Role.DOCTOR, 7L,
+                fingerprint);
+        loaded.eraseCredentials(); // as Spring Security does before the success handler runs
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        tokens.writeCookies(response, loaded);
+
+        String refresh = response.getCookie(SessionTokenService.REFRESH_COOKIE).getValue();
+        String claims = new String(Base64.getUrlDecoder().decode(refresh.split("\\.")[1]));
+        assertTrue(claims.endsWith("|" + fingerprint));
+        // A principal rebuilt from a token never saw the hash, so it cannot start a login
+        assertThrows(IllegalStateException.class, () -> tokens.writeCookies(new MockHttpServletResponse(), doctor));
+    }
+}